@@ -55,9 +55,10 @@ db.expense.insertMany( [
         shortDescription: 'Bank Transfer1',
         fullDescription: 'Bank Transfer to account ending in 1111',
         amount: 10.5,
-        date: '2024-09-11T02:56:43.703+00:00',
-        category: DBRef('category', new ObjectId('674ab549c50dd521b3e43d78')),
-        user : DBRef('user', new ObjectId('6748299eceea026ca6ef5f0c')),
-        _class: 'com.adk.expensetracker.model.User'
+        date: ISODate('2024-09-11T02:56:43.703Z'),
+        // expenses store their category by name
+        category: 'Home',
+        userId: '6748299eceea026ca6ef5f0c',
+        _class: 'com.adk.expensetracker.model.Expense'
     }
 ] );
@@ -0,0 +1,60 @@
+package com.adk.expensetracker.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Binary encodings of the same response bodies as JSON, chosen by clients sending {@code Accept: application/cbor} or
+ * {@code Accept: application/x-jackson-smile}. The converters replace Spring's defaults, which would use a mapper without
+ * the application's Jackson configuration, and keep their place after JSON so JSON stays the default.
+ * Every response varies by Accept, so caches never answer one encoding with another's body or 304 (they share an ETag)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+	/**
+	 * Adds {@code Vary: Accept} before the handler runs, so it is also sent with 304 Not Modified responses
+	 * @param registry {@link InterceptorRegistry} the interceptors of the handlers
+	 */
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new HandlerInterceptor() {
+			@Override
+			public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+				response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+				return true;
+			}
+		});
+	}
+
+	/**
+	 * @param builder {@link Jackson2ObjectMapperBuilder} the application's Jackson configuration
+	 * @return {@link MappingJackson2CborHttpMessageConverter} writing and reading CBOR
+	 */
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	/**
+	 * @param builder {@link Jackson2ObjectMapperBuilder} the application's Jackson configuration
+	 * @return {@link MappingJackson2SmileHttpMessageConverter} writing and reading Smile
+	 */
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+}
@@ -0,0 +1,25 @@
+package com.adk.expensetracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tunes the MongoDB client beyond what the connection string configures
+ */
+@Configuration
+public class MongoClientConfig {
+
+	/**
+	 * Sizes the driver's connection pool, requests waiting for a connection queue inside the driver
+	 * @param maxPoolSize maximum number of connections per server
+	 * @return {@link MongoClientSettingsBuilderCustomizer} applying the pool size
+	 */
+	@Bean
+	@ConditionalOnProperty("expense.mongo.max-pool-size")
+	public MongoClientSettingsBuilderCustomizer connectionPoolSizeCustomizer(@Value("${expense.mongo.max-pool-size}") int maxPoolSize) {
+		return settings -> settings.applyToConnectionPoolSettings(pool -> pool.maxSize(maxPoolSize));
+	}
+}
@@ -0,0 +1,26 @@
+package com.adk.expensetracker.config;
+
+import com.adk.expensetracker.service.CategoryCache;
+import com.adk.expensetracker.service.CategoryReadingConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+/**
+ * Custom conversions used when mapping documents
+ */
+@Configuration
+public class MongoConversionsConfig {
+
+	/**
+	 * @param categoryCache {@link ObjectProvider} of the {@link CategoryCache} used to resolve stored category names
+	 * @return {@link MongoCustomConversions} including the conversions needed by the expense DTO projections
+	 */
+	@Bean
+	public MongoCustomConversions mongoCustomConversions(ObjectProvider<CategoryCache> categoryCache) {
+		return new MongoCustomConversions(List.of(new CategoryReadingConverter(categoryCache)));
+	}
+}
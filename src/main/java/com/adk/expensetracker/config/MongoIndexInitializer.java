@@ -0,0 +1,133 @@
+package com.adk.expensetracker.config;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.ExpenseRollup;
+import com.adk.expensetracker.model.Role;
+import com.adk.expensetracker.model.User;
+import com.mongodb.ExplainVerbosity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the database objects at startup and verifies that the query shapes used
+ * by the repositories are served by an index instead of a collection scan
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+	private static final List<Class<?>> INDEXED_ENTITIES = List.of(Expense.class, ExpenseRollup.class, User.class, Category.class, Role.class);
+
+	private final MongoTemplate mongoTemplate;
+	private final MongoMappingContext mappingContext;
+
+	@Value("${expense.index.fail-on-collection-scan:false}")
+	private boolean failOnCollectionScan;
+
+	/**
+	 * Ensures indexes exist and checks the repository query shapes once the application has started
+	 * @throws IllegalStateException if a query shape falls back to a collection scan and failing is enabled
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void initializeIndexes() {
+		ensureIndexes();
+		List<String> collectionScans = findCollectionScans();
+		if(collectionScans.isEmpty())
+			return;
+		if(failOnCollectionScan)
+			throw new IllegalStateException("Query shapes fall back to a collection scan: " + collectionScans);
+		collectionScans.forEach(shape -> log.warn("Query shape {} falls back to a collection scan", shape));
+	}
+
+	/**
+	 * Creates every index declared through {@code @Indexed} and {@code @CompoundIndex} on the database objects
+	 */
+	void ensureIndexes() {
+		IndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mappingContext);
+		for(Class<?> entity : INDEXED_ENTITIES) {
+			IndexOperations indexOperations = mongoTemplate.indexOps(entity);
+			indexResolver.resolveIndexFor(entity).forEach(indexOperations::ensureIndex);
+		}
+	}
+
+	/**
+	 * Explains each repository query shape and collects the ones whose winning plan is a collection scan
+	 * @return {@link List} of {@link String} names of the query shapes that fall back to a collection scan
+	 */
+	List<String> findCollectionScans() {
+		List<String> collectionScans = new ArrayList<>();
+		for(QueryShape shape : queryShapes()) {
+			if(usesCollectionScan(shape.collection(), shape.filter(), shape.sort()))
+				collectionScans.add(shape.name());
+		}
+		return collectionScans;
+	}
+
+	/**
+	 * Determines if a query would be served by a collection scan
+	 * @param collection {@link String} the name of the collection
+	 * @param filter {@link Document} the query filter as stored in the database
+	 * @param sort {@link Document} the sort of the query, may be {@code null}
+	 * @return {@code true} if the winning plan contains a COLLSCAN stage, {@code false} otherwise
+	 */
+	boolean usesCollectionScan(String collection, Document filter, Document sort) {
+		Document explain = mongoTemplate.getCollection(collection).find(filter).sort(sort).explain(ExplainVerbosity.QUERY_PLANNER);
+		return containsStage(explain.get("queryPlanner", Document.class).get("winningPlan"), "COLLSCAN");
+	}
+
+	private static boolean containsStage(Object plan, String stage) {
+		if(plan instanceof Document document)
+			return stage.equals(document.get("stage")) || document.values().stream().anyMatch(value -> containsStage(value, stage));
+		if(plan instanceof List<?> list)
+			return list.stream().anyMatch(value -> containsStage(value, stage));
+		return false;
+	}
+
+	/**
+	 * Query shapes issued by the repositories. The admin only per user summary scans a date range across all users
+	 * and is intentionally not included
+	 */
+	private List<QueryShape> queryShapes() {
+		String expense = mongoTemplate.getCollectionName(Expense.class);
+		String userId = new ObjectId().toHexString();
+		Date date = new Date();
+		Document newestFirst = new Document("date", -1).append("_id", -1);
+		return List.of(
+				new QueryShape("ExpenseRepo.findByUserId", expense, new Document("userId", userId), null),
+				new QueryShape("ExpenseRepo.findPageByUserId", expense, new Document("userId", userId), newestFirst),
+				new QueryShape("ExpenseRepo.findPageByUserIdAfter", expense, new Document("userId", userId)
+						.append("$or", List.of(new Document("date", new Document("$lt", date)),
+								new Document("date", date).append("_id", new Document("$lt", new ObjectId())))), newestFirst),
+				new QueryShape("ExpenseRepo.findByUserIdAndCategoryName", expense, new Document("userId", userId)
+						.append("category", "Home"), null),
+				new QueryShape("ExpenseRepo.findByUserIdAndBetweenTwoDates", expense, new Document("userId", userId)
+						.append("date", new Document("$gt", date).append("$lt", date)), null),
+				new QueryShape("ExpenseRepo.findChangesByUserId", expense, new Document("userId", userId)
+						.append("syncVersion", new Document("$gt", 0L).append("$lte", 1L)), new Document("syncVersion", 1)),
+				new QueryShape("ExpenseRollupService.trend", mongoTemplate.getCollectionName(ExpenseRollup.class), new Document("userId", userId)
+						.append("granularity", "DAY").append("bucket", new Document("$gte", date).append("$lt", date)), new Document("bucket", 1)),
+				new QueryShape("UserRepo.findByUsername", mongoTemplate.getCollectionName(User.class), new Document("username", "user"), null),
+				new QueryShape("CategoryRepo.findByName", mongoTemplate.getCollectionName(Category.class), new Document("name", "Home"), null),
+				new QueryShape("RoleRepo.findByValue", mongoTemplate.getCollectionName(Role.class), new Document("value", "USER"), null));
+	}
+
+	private record QueryShape(String name, String collection, Document filter, Document sort) {
+	}
+}
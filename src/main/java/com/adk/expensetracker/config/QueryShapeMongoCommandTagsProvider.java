@@ -0,0 +1,73 @@
+package com.adk.expensetracker.config;
+
+import com.mongodb.event.CommandEvent;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.mongodb.DefaultMongoCommandTagsProvider;
+import io.micrometer.core.instrument.binder.mongodb.MongoCommandTagsProvider;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Tags Mongo command timers with the shape of the query on top of the default command and collection tags,
+ * so slow commands can be traced back to the repository method that issued them.
+ * A shape only holds field names and operators, never values, keeping the number of time series bounded by the queries in the code
+ */
+@Component
+public class QueryShapeMongoCommandTagsProvider implements MongoCommandTagsProvider {
+
+	private static final String NO_SHAPE = "none";
+
+	private final MongoCommandTagsProvider defaultTagsProvider = new DefaultMongoCommandTagsProvider();
+	private final Map<Integer, String> inFlightShapes = new ConcurrentHashMap<>();
+
+	@Override
+	public void commandStarted(CommandStartedEvent event) {
+		defaultTagsProvider.commandStarted(event);
+		inFlightShapes.put(event.getRequestId(), shapeOf(event.getCommand()));
+	}
+
+	@Override
+	public Iterable<Tag> commandTags(CommandEvent event) {
+		String shape = inFlightShapes.remove(event.getRequestId());
+		return Tags.of(defaultTagsProvider.commandTags(event)).and("shape", shape == null ? NO_SHAPE : shape);
+	}
+
+	/**
+	 * Describes the filter and sort of a command
+	 * @param command {@link BsonDocument} the command sent to the server
+	 * @return {@link String} the shape e.g. {@code filter={userId,category};sort={date}}
+	 */
+	static String shapeOf(BsonDocument command) {
+		BsonValue filter = command.get("filter", command.get("query"));
+		BsonValue sort = command.get("sort");
+		BsonArray pipeline = command.isArray("pipeline") ? command.getArray("pipeline") : null;
+		if(filter == null && pipeline != null && !pipeline.isEmpty() && pipeline.get(0).isDocument())
+			filter = pipeline.get(0).asDocument().get("$match");
+		if(filter == null || !filter.isDocument())
+			return NO_SHAPE;
+		String shape = "filter=" + fieldsOf(filter.asDocument());
+		if(sort != null && sort.isDocument())
+			shape += ";sort=" + fieldsOf(sort.asDocument());
+		return shape;
+	}
+
+	private static String fieldsOf(BsonDocument document) {
+		return document.entrySet().stream()
+				.map(entry -> entry.getValue().isArray() && entry.getKey().startsWith("$")
+						? entry.getKey() + entry.getValue().asArray().stream()
+								.filter(BsonValue::isDocument)
+								.map(value -> fieldsOf(value.asDocument()))
+								.distinct()
+								.collect(Collectors.joining(",", "[", "]"))
+						: entry.getKey())
+				.collect(Collectors.joining(",", "{", "}"));
+	}
+}
@@ -0,0 +1,52 @@
+package com.adk.expensetracker.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * WebFlux configuration used when the application runs on the reactive stack ("reactive" profile)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer, DisposableBean {
+
+	private final ThreadPoolTaskExecutor blockingExecutor;
+
+	public ReactiveWebConfig(@Value("${expense.reactive.blocking-threads:64}") int blockingThreads) {
+		this.blockingExecutor = new ThreadPoolTaskExecutor();
+		this.blockingExecutor.setCorePoolSize(blockingThreads);
+		this.blockingExecutor.setMaxPoolSize(blockingThreads);
+		this.blockingExecutor.setThreadNamePrefix("blocking-");
+		this.blockingExecutor.initialize();
+	}
+
+	/**
+	 * Serves the reactive stack from Netty, Tomcat is also on the classpath for the servlet stack and would otherwise be picked
+	 * @return {@link NettyReactiveWebServerFactory} the web server factory
+	 */
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+
+	/**
+	 * Runs controller methods that don't return a reactive type, such as the user endpoints, on a bounded thread pool
+	 * so their blocking repository calls never stall the event loop
+	 */
+	@Override
+	public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+		configurer.setExecutor(blockingExecutor);
+	}
+
+	@Override
+	public void destroy() {
+		blockingExecutor.shutdown();
+	}
+}
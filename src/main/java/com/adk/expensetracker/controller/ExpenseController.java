@@ -3,11 +3,24 @@ package com.adk.expensetracker.controller;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import com.adk.expensetracker.dto.BulkImportResultDTO;
+import com.adk.expensetracker.dto.CompactExpenseListDTO;
 import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.dto.ExpenseChangesDTO;
+import com.adk.expensetracker.dto.ExpenseListItem;
+import com.adk.expensetracker.dto.ExpensePageDTO;
+import com.adk.expensetracker.dto.ExpenseShape;
+import com.adk.expensetracker.dto.ExpenseView;
+import com.adk.expensetracker.dto.ExportFormat;
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.dto.SpendingWindow;
+import com.adk.expensetracker.dto.SummaryPeriod;
 import com.adk.expensetracker.dto.UserDTO;
 import com.adk.expensetracker.errorhandling.ApiError;
-import com.adk.expensetracker.model.Category;
 import com.adk.expensetracker.util.DTOMapper;
+import com.adk.expensetracker.util.ExpenseImportReader;
+import com.adk.expensetracker.util.ExpenseStreamWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,29 +28,52 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.ExpenseRollup;
+import com.adk.expensetracker.model.ExpenseVersion;
 import com.adk.expensetracker.service.ExpenseService;
+import com.adk.expensetracker.service.ExpenseVersionService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * API Endpoints that are used to create, read, update, and delete expenses
  */
 @RestController
 @RequestMapping("/expense")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ExpenseController {
 	
 	@Autowired
 	ExpenseService expenseService;
 
+	@Autowired
+	ObjectMapper objectMapper;
+
 	/**
 	 * Creates a new expense and add it to a user
 	 * @param userId {@link String} the id of the user to add the expense to
@@ -75,6 +111,56 @@ public class ExpenseController {
 		return new ResponseEntity<>(DTOMapper.mapToExpenseDTO(expenseService.createExpense(userId, expense)), HttpStatus.OK);
 	}
 
+	/**
+	 * Creates many expenses for a user from a JSON array, newline delimited JSON or CSV body
+	 * @param userId {@link String} the id of the user to add the expenses to
+	 * @param contentType {@link MediaType} the format of the body
+	 * @param body {@link InputStream} the expenses, read one row at a time
+	 * @return {@link ResponseEntity} containing a BulkImportResultDTO with the rows that failed if no api errors are thrown
+	 * @throws IOException if the body can't be closed
+	 */
+	@Operation(summary = "Create many Expenses", description = "Creates expenses in bulk for a user. The body can be a JSON array of Expense objects (application/json), one Expense object per line (application/x-ndjson) " +
+			"or CSV with the header row shortDescription,fullDescription,amount,date,category (text/csv). Rows that can't be parsed or are missing required fields are reported by row number, starting at 1, " +
+			"without stopping the rest of the import. A body that becomes malformed part way ends the import with aborted set and the error reported as a failure " +
+			"of the row after the last one received, the rows before it are inserted. Required fields: shortDescription, fullDescription, amount, date", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(schema = @Schema(implementation = BulkImportResultDTO.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"received\": 3,\n" +
+							"    \"inserted\": 2,\n" +
+							"    \"failed\": 1,\n" +
+							"    \"aborted\": false,\n" +
+							"    \"failures\": [\n" +
+							"        {\n" +
+							"            \"row\": 2,\n" +
+							"            \"message\": \"Expense was missing value of field 'amount' which is of class java.lang.Double\"\n" +
+							"        }\n" +
+							"    ]\n" +
+							"}") })),
+			@ApiResponse(description = "Bad Request/ Malformed Import", responseCode = "400", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"BAD_REQUEST\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"The CSV header must name the columns shortdescription,fulldescription,amount,date,category\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") })),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@PostMapping(value = "/createBulk/{userId}", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+	public ResponseEntity<Object> createExpenses(@PathVariable String userId, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+		try (ExpenseImportReader rows = ExpenseImportReader.open(body, contentType, objectMapper)) {
+			return new ResponseEntity<>(expenseService.createExpenses(userId, rows), HttpStatus.OK);
+		}
+	}
+
 	/**
 	 * Gets an expense by the expense id
 	 * @param expenseId {@link String} id of the expense
@@ -111,9 +197,12 @@ public class ExpenseController {
 	/**
 	 * Gets an expense by the user id
 	 * @param userId {@link String} the user id associated with the expense
+	 * @param view {@link ExpenseView} FULL for every field, SUMMARY to leave out the full description
+	 * @param shape {@link ExpenseShape} ROWS for one object per expense, COMPACT for one array per field
+	 * @param request {@link WebRequest} used to answer a current If-None-Match with 304 Not Modified
 	 * @return {@link ResponseEntity} containing a list of ExpenseDTOs with the user id if no api errors are thrown
 	 */
-	@Operation(summary = "Retrieve Expenses By its user ID", description = "Retrieves Expenses By its user ID", responses = {
+	@Operation(summary = "Retrieve Expenses By its user ID", description = "Retrieves Expenses By its user ID. Pass view=SUMMARY to leave out the full description and shape=COMPACT to send every field as one array, with the user id and each category sent once", responses = {
 			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ExpenseDTO.class)), examples = {
 					@ExampleObject(value = "[\n" +
 							"    {\n" +
@@ -135,6 +224,7 @@ public class ExpenseController {
 							"        \"userId\": \"6748299eceea026ca6ef5f0c\"\n" +
 							"    }\n" +
 							"]") })),
+			@ApiResponse(description = "Not Modified, the user's expenses didn't change since the ETag in If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
 					@ExampleObject(value = "{\n" +
 							"    \"apierror\": {\n" +
@@ -154,17 +244,220 @@ public class ExpenseController {
 							"    }\n" +
 							"}") }))})
 	@GetMapping("/getByUserId/{userId}")
-	public ResponseEntity<Object> getExpenseByUserId(@PathVariable String userId) {
-		return new ResponseEntity<>(DTOMapper.mapToExpenseDTO(expenseService.readExpensesForUser(userId)), HttpStatus.OK);
+	public ResponseEntity<Object> getExpenseByUserId(@PathVariable String userId, @RequestParam(defaultValue = "FULL") ExpenseView view,
+			@RequestParam(defaultValue = "ROWS") ExpenseShape shape, WebRequest request) {
+		if(isNotModified(request, userId, false))
+			return null;
+		return new ResponseEntity<>(inShape(userId, expenseService.readExpensesForUser(userId, view.getType()), view, shape), HttpStatus.OK);
+	}
+
+	/**
+	 * Gets a single page of expenses by the user id using a keyset cursor
+	 * @param userId {@link String} the user id associated with the expense
+	 * @param cursor {@link String} the opaque cursor returned with the previous page, omitted for the first page
+	 * @param size {@code int} the maximum number of expenses returned in the page
+	 * @param request {@link WebRequest} used to answer a current If-None-Match with 304 Not Modified
+	 * @return {@link ResponseEntity} containing an ExpensePageDTO with the user id if no api errors are thrown
+	 */
+	@Operation(summary = "Retrieve a page of Expenses By its user ID", description = "Retrieves a page of Expenses By its user ID ordered by date (newest first). " +
+			"Pass the returned nextCursor as the cursor parameter to retrieve the following page, a null nextCursor means there are no more expenses. " +
+			"Page size defaults to 50 and is capped at " + ExpenseService.MAX_PAGE_SIZE, responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(schema = @Schema(implementation = ExpensePageDTO.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"expenses\": [\n" +
+							"        {\n" +
+							"            \"id\": \"6748368e9bf8ee5aaccf393a\",\n" +
+							"            \"shortDescription\": \"Bank Transfer3\",\n" +
+							"            \"fullDescription\": \"Bank Transfer to account ending in 1111\",\n" +
+							"            \"amount\": 10.5,\n" +
+							"            \"date\": \"2024-09-10T22:56:43.703\",\n" +
+							"            \"category\": null,\n" +
+							"            \"userId\": \"6748299eceea026ca6ef5f0c\"\n" +
+							"        }\n" +
+							"    ],\n" +
+							"    \"nextCursor\": \"MjAyNC0wOS0xMFQyMjo1Njo0My43MDN8Njc0ODM2OGU5YmY4ZWU1YWFjY2YzOTNh\"\n" +
+							"}") })),
+			@ApiResponse(description = "Bad Request/ Cursor could not be decoded", responseCode = "400", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"BAD_REQUEST\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"The cursor 'abc' is not a valid expense cursor!\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") })),
+			@ApiResponse(description = "Not Modified, the user's expenses didn't change since the ETag in If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@GetMapping("/getPageByUserId/{userId}")
+	public ResponseEntity<Object> getExpensePageByUserId(@PathVariable String userId, @RequestParam(required = false) String cursor,
+														 @RequestParam(defaultValue = "50") int size, WebRequest request) {
+		if(isNotModified(request, userId, false))
+			return null;
+		int pageSize = Math.max(1, Math.min(size, ExpenseService.MAX_PAGE_SIZE));
+		List<Expense> expenses = expenseService.readExpensePageForUser(userId, cursor, pageSize);
+		return new ResponseEntity<>(DTOMapper.mapToExpensePageDTO(expenses, pageSize), HttpStatus.OK);
+	}
+
+	/**
+	 * Gets the expenses of a user changed or deleted after a sync version so offline clients can catch up with a delta
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param since {@code long} the version returned by the previous sync, 0 for a full sync
+	 * @param limit {@code int} the maximum number of changes returned
+	 * @param request {@link WebRequest} used to answer a current If-None-Match with 304 Not Modified
+	 * @return {@link ResponseEntity} containing an ExpenseChangesDTO if no api errors are thrown
+	 */
+	@Operation(summary = "Retrieve the Expense changes of a user since a version", description = "Retrieves the Expenses of a user created, updated or deleted " +
+			"after a sync version, oldest change first. Deleted expenses are returned by id only. Pass the returned version as since to retrieve the next changes, " +
+			"while hasMore is true more changes follow immediately. Deletions are kept for " + Expense.TOMBSTONE_RETENTION_DAYS + " days, a client syncing from an older " +
+			"version gets 410 Gone and must sync again from 0. " +
+			"Limit defaults to 100 and is capped at " + ExpenseService.MAX_PAGE_SIZE, responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(schema = @Schema(implementation = ExpenseChangesDTO.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"changed\": [\n" +
+							"        {\n" +
+							"            \"id\": \"6748368e9bf8ee5aaccf393a\",\n" +
+							"            \"shortDescription\": \"Bank Transfer3\",\n" +
+							"            \"fullDescription\": \"Bank Transfer to account ending in 1111\",\n" +
+							"            \"amount\": 10.5,\n" +
+							"            \"date\": \"2024-09-10T22:56:43.703\",\n" +
+							"            \"category\": null,\n" +
+							"            \"userId\": \"6748299eceea026ca6ef5f0c\"\n" +
+							"        }\n" +
+							"    ],\n" +
+							"    \"deleted\": [\n" +
+							"        \"6748368e9bf8ee5aaccf3940\"\n" +
+							"    ],\n" +
+							"    \"version\": 42,\n" +
+							"    \"hasMore\": false\n" +
+							"}") })),
+			@ApiResponse(description = "Not Modified, the user's expenses didn't change since the ETag in If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") })),
+			@ApiResponse(description = "Gone/ Deletions after the since version are no longer kept", responseCode = "410", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"GONE\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"Changes of user 6748299eceea026ca6ef5f0c after version 42 are no longer kept, sync again from version 0!\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@GetMapping("/changes/{userId}")
+	public ResponseEntity<Object> getExpenseChanges(@PathVariable String userId, @RequestParam(defaultValue = "0") long since,
+													@RequestParam(defaultValue = "100") int limit, WebRequest request) {
+		ExpenseVersionService.SyncState syncState = expenseService.readSyncState(userId, since);
+		// the committed version is part of the ETag since a write finishing late raises it without bumping the version again
+		if(request.checkNotModified("W/\"" + syncState.version() + "-" + syncState.committed() + "\""))
+			return null;
+		int pageSize = Math.max(1, Math.min(limit, ExpenseService.MAX_PAGE_SIZE));
+		List<Expense> changes = expenseService.readExpenseChanges(userId, since, syncState.committed(), pageSize);
+		return new ResponseEntity<>(DTOMapper.mapToExpenseChangesDTO(changes, since, syncState.committed(), pageSize), HttpStatus.OK);
+	}
+
+	/**
+	 * Streams all expenses by the user id straight from the database so memory use stays flat regardless of the number of expenses
+	 * @param userId {@link String} the user id associated with the expense
+	 * @param format {@link String} "ndjson" to write one ExpenseDTO per line or "array" to write a single JSON array
+	 * @return {@link ResponseEntity} containing a stream of ExpenseDTOs with the user id if no api errors are thrown
+	 */
+	@Operation(summary = "Stream Expenses By its user ID", description = "Streams all Expenses By its user ID ordered by date (newest first). " +
+			"The default format is newline delimited JSON (application/x-ndjson), pass format=array to receive a single JSON array instead", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(mediaType = "application/x-ndjson", examples = {
+					@ExampleObject(value = "{\"id\":\"6748368e9bf8ee5aaccf393a\",\"shortDescription\":\"Bank Transfer3\",\"fullDescription\":\"Bank Transfer to account ending in 1111\",\"amount\":10.5,\"date\":\"2024-09-10T22:56:43.703\",\"category\":null,\"userId\":\"6748299eceea026ca6ef5f0c\"}\n" +
+							"{\"id\":\"67482a4bceea026ca6ef5f0e\",\"shortDescription\":\"Bank Transfer1\",\"fullDescription\":\"Bank Transfer to account ending in 1111\",\"amount\":10.5,\"date\":\"2024-09-10T22:56:43.703\",\"category\":null,\"userId\":\"6748299eceea026ca6ef5f0c\"}") })),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@GetMapping("/streamByUserId/{userId}")
+	public ResponseEntity<StreamingResponseBody> streamExpensesByUserId(@PathVariable String userId, @RequestParam(defaultValue = "ndjson") String format) {
+		Stream<Expense> expenses = expenseService.streamExpensesForUser(userId);
+		if("array".equalsIgnoreCase(format))
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+					.body(outputStream -> ExpenseStreamWriter.writeJsonArray(expenses, outputStream, objectMapper));
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+				.body(outputStream -> ExpenseStreamWriter.writeNdjson(expenses, outputStream, objectMapper));
+	}
+
+	/**
+	 * Exports a user's expenses as CSV or newline delimited JSON, streamed straight from a database cursor
+	 * @param userId {@link String} the id of the user associated with the expenses
+	 * @param format {@link ExportFormat} the format of the export
+	 * @param gzip {@code boolean} whether to gzip the export
+	 * @param startDate {@link LocalDateTime} only expenses on or after this date, optional
+	 * @param endDate {@link LocalDateTime} only expenses before this date, optional
+	 * @param category {@link String} only expenses in this category, optional
+	 * @return {@link ResponseEntity} containing a StreamingResponseBody that writes the export if no api errors are thrown
+	 */
+	@Operation(summary = "Export a user's Expenses", description = "Exports a user's Expenses ordered by date (newest first) as a file download. The default format is CSV, pass format=NDJSON for newline delimited JSON. " +
+			"Rows are streamed as they are read from the database so exports of any size start immediately. Pass gzip=true to receive the export gzip compressed (Content-Encoding: gzip). " +
+			"startDate (inclusive), endDate (exclusive) and category optionally restrict the exported expenses", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(mediaType = "text/csv", examples = {
+					@ExampleObject(value = "id,shortDescription,fullDescription,amount,date,category,userId\n" +
+							"6748368e9bf8ee5aaccf393a,Bank Transfer3,Bank Transfer to account ending in 1111,10.5,2024-09-10T22:56:43.703,test,6748299eceea026ca6ef5f0c\n" +
+							"67482a4bceea026ca6ef5f0e,Bank Transfer1,Bank Transfer to account ending in 1111,10.5,2024-09-10T22:56:43.703,test,6748299eceea026ca6ef5f0c") })),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@GetMapping("/export/{userId}")
+	public ResponseEntity<StreamingResponseBody> exportExpenses(@PathVariable String userId, @RequestParam(defaultValue = "CSV") ExportFormat format,
+			@RequestParam(defaultValue = "false") boolean gzip, @RequestParam(required = false) LocalDateTime startDate,
+			@RequestParam(required = false) LocalDateTime endDate, @RequestParam(required = false) String category) {
+		Stream<Expense> expenses = expenseService.streamExpensesForExport(userId, startDate, endDate, category);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(format.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+						.filename("expenses-" + userId + "." + format.getExtension()).build().toString());
+		if(gzip)
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		return response.body(outputStream -> {
+			// sync flush so rows reach the client as they are compressed instead of when the export finishes
+			OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192, true) : outputStream;
+			if(format == ExportFormat.CSV)
+				ExpenseStreamWriter.writeCsv(expenses, target);
+			else
+				ExpenseStreamWriter.writeNdjson(expenses, target, objectMapper);
+			if(target instanceof GZIPOutputStream gzipOutputStream)
+				gzipOutputStream.finish();
+		});
 	}
 
 	/**
 	 * Gets a list of expenses by its user id and category
 	 * @param userId {@link String} the id of the user associated with the expense
 	 * @param categoryName {@link String} the name of the category
+	 * @param view {@link ExpenseView} FULL for every field, SUMMARY to leave out the full description
+	 * @param shape {@link ExpenseShape} ROWS for one object per expense, COMPACT for one array per field
+	 * @param request {@link WebRequest} used to answer a current If-None-Match with 304 Not Modified
 	 * @return {@link ResponseEntity} containing a list of ExpenseDTOs with the given user id and category name if no api errors are thrown
 	 */
-	@Operation(summary = "Retrieve Expenses By its user ID and category", description = "Retrieves Expenses By its user ID and category name", responses = {
+	@Operation(summary = "Retrieve Expenses By its user ID and category", description = "Retrieves Expenses By its user ID and category name. Pass view=SUMMARY to leave out the full description and shape=COMPACT to send every field as one array, with the user id and each category sent once", responses = {
 			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ExpenseDTO.class)), examples = {
 					@ExampleObject(value = "[\n" +
 							"    {\n" +
@@ -192,6 +485,7 @@ public class ExpenseController {
 							"        \"userId\": \"6748299eceea026ca6ef5f0c\"\n" +
 							"    }\n" +
 							"]") })),
+			@ApiResponse(description = "Not Modified, the user's expenses didn't change since the ETag in If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
 					@ExampleObject(value = "{\n" +
 							"    \"apierror\": {\n" +
@@ -202,17 +496,23 @@ public class ExpenseController {
 							"    }\n" +
 							"}") }))})
 	@GetMapping("/getByCategory/{userId}/{categoryName}")
-	public ResponseEntity<Object> getExpenseForUserByCategory(@PathVariable String userId, @PathVariable String categoryName) {
+	public ResponseEntity<Object> getExpenseForUserByCategory(@PathVariable String userId, @PathVariable String categoryName, @RequestParam(defaultValue = "FULL") ExpenseView view,
+			@RequestParam(defaultValue = "ROWS") ExpenseShape shape, WebRequest request) {
+		if(isNotModified(request, userId, false))
+			return null;
 		System.out.println(userId);
-		return new ResponseEntity<>(DTOMapper.mapToExpenseDTO(expenseService.readExpenseForUserByCategory(userId, categoryName)), HttpStatus.OK);
+		return new ResponseEntity<>(inShape(userId, expenseService.readExpenseForUserByCategory(userId, categoryName, view.getType()), view, shape), HttpStatus.OK);
 	}
 
 	/**
 	 * Gets all expenses for a user from the past week
 	 * @param userId {@link String} id of the user associated with the expense
+	 * @param view {@link ExpenseView} FULL for every field, SUMMARY to leave out the full description
+	 * @param shape {@link ExpenseShape} ROWS for one object per expense, COMPACT for one array per field
+	 * @param request {@link WebRequest} used to answer a current If-None-Match with 304 Not Modified
 	 * @return {@link ResponseEntity} containing a list of ExpenseDTOs with the given user id and is from within the past week if no api errors are thrown
 	 */
-	@Operation(summary = "Get Expenses for a user within the last week", description = "Gets Expenses for a user within the last week", responses = {
+	@Operation(summary = "Get Expenses for a user within the last week", description = "Gets Expenses for a user within the last week. Pass view=SUMMARY to leave out the full description and shape=COMPACT to send every field as one array, with the user id and each category sent once", responses = {
 			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ExpenseDTO.class)), examples = {
 					@ExampleObject(value = "[\n" +
 							"    {\n" +
@@ -240,6 +540,7 @@ public class ExpenseController {
 							"        \"userId\": \"6748299eceea026ca6ef5f0c\"\n" +
 							"    }\n" +
 							"]") })),
+			@ApiResponse(description = "Not Modified, the user's expenses didn't change since the ETag in If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
 					@ExampleObject(value = "{\n" +
 							"    \"apierror\": {\n" +
@@ -250,16 +551,22 @@ public class ExpenseController {
 							"    }\n" +
 							"}") }))})
 	@GetMapping("/getPastWeek/{userId}")
-	public ResponseEntity<Object> getExpenseByUserIdWithinLastWeek(@PathVariable String userId) {
-		return new ResponseEntity<>(DTOMapper.mapToExpenseDTO(expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusDays(7), LocalDateTime.now(), userId)), HttpStatus.OK);
+	public ResponseEntity<Object> getExpenseByUserIdWithinLastWeek(@PathVariable String userId, @RequestParam(defaultValue = "FULL") ExpenseView view,
+			@RequestParam(defaultValue = "ROWS") ExpenseShape shape, WebRequest request) {
+		if(isNotModified(request, userId, true))
+			return null;
+		return new ResponseEntity<>(inShape(userId, expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusDays(7), LocalDateTime.now(), userId, view.getType()), view, shape), HttpStatus.OK);
 	}
 
 	/**
 	 * Gets all expenses for a user from the past month
 	 * @param userId {@link String} id of the user associated with the expense
+	 * @param view {@link ExpenseView} FULL for every field, SUMMARY to leave out the full description
+	 * @param shape {@link ExpenseShape} ROWS for one object per expense, COMPACT for one array per field
+	 * @param request {@link WebRequest} used to answer a current If-None-Match with 304 Not Modified
 	 * @return {@link ResponseEntity} containing a list of ExpenseDTOs with the given user id and is from within the past month if no api errors are thrown
 	 */
-	@Operation(summary = "Get Expenses for a user within the last month", description = "Gets Expenses for a user within the last month", responses = {
+	@Operation(summary = "Get Expenses for a user within the last month", description = "Gets Expenses for a user within the last month. Pass view=SUMMARY to leave out the full description and shape=COMPACT to send every field as one array, with the user id and each category sent once", responses = {
 			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ExpenseDTO.class)), examples = {
 					@ExampleObject(value = "[\n" +
 							"    {\n" +
@@ -287,6 +594,7 @@ public class ExpenseController {
 							"        \"userId\": \"6748299eceea026ca6ef5f0c\"\n" +
 							"    }\n" +
 							"]") })),
+			@ApiResponse(description = "Not Modified, the user's expenses didn't change since the ETag in If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
 					@ExampleObject(value = "{\n" +
 							"    \"apierror\": {\n" +
@@ -297,16 +605,22 @@ public class ExpenseController {
 							"    }\n" +
 							"}") }))})
 	@GetMapping("/getPastMonth/{userId}")
-	public ResponseEntity<Object> getExpenseByUserIdWithinPastMonth(@PathVariable String userId) {
-		return new ResponseEntity<>(DTOMapper.mapToExpenseDTO(expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusMonths(1), LocalDateTime.now(), userId)), HttpStatus.OK);
+	public ResponseEntity<Object> getExpenseByUserIdWithinPastMonth(@PathVariable String userId, @RequestParam(defaultValue = "FULL") ExpenseView view,
+			@RequestParam(defaultValue = "ROWS") ExpenseShape shape, WebRequest request) {
+		if(isNotModified(request, userId, true))
+			return null;
+		return new ResponseEntity<>(inShape(userId, expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusMonths(1), LocalDateTime.now(), userId, view.getType()), view, shape), HttpStatus.OK);
 	}
 
 	/**
 	 * Gets all expenses for a user from the past 3 months
 	 * @param userId {@link String} id of the user associated with the expense
+	 * @param view {@link ExpenseView} FULL for every field, SUMMARY to leave out the full description
+	 * @param shape {@link ExpenseShape} ROWS for one object per expense, COMPACT for one array per field
+	 * @param request {@link WebRequest} used to answer a current If-None-Match with 304 Not Modified
 	 * @return {@link ResponseEntity} containing a list of ExpenseDTOs with the given user id and is from within the past 3 months if no api errors are thrown
 	 */
-	@Operation(summary = "Get Expenses for a user within the last 3 months", description = "Gets Expenses for a user within the last 3 months", responses = {
+	@Operation(summary = "Get Expenses for a user within the last 3 months", description = "Gets Expenses for a user within the last 3 months. Pass view=SUMMARY to leave out the full description and shape=COMPACT to send every field as one array, with the user id and each category sent once", responses = {
 			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ExpenseDTO.class)), examples = {
 					@ExampleObject(value = "[\n" +
 							"    {\n" +
@@ -334,6 +648,7 @@ public class ExpenseController {
 							"        \"userId\": \"6748299eceea026ca6ef5f0c\"\n" +
 							"    }\n" +
 							"]") })),
+			@ApiResponse(description = "Not Modified, the user's expenses didn't change since the ETag in If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
 					@ExampleObject(value = "{\n" +
 							"    \"apierror\": {\n" +
@@ -344,8 +659,11 @@ public class ExpenseController {
 							"    }\n" +
 							"}") }))})
 	@GetMapping("/getPastThreeMonths/{userId}")
-	public ResponseEntity<Object> getExpenseByUserIdWithinPastThreeMonths(@PathVariable String userId) {
-		return new ResponseEntity<>(DTOMapper.mapToExpenseDTO(expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusMonths(3), LocalDateTime.now(), userId)), HttpStatus.OK);
+	public ResponseEntity<Object> getExpenseByUserIdWithinPastThreeMonths(@PathVariable String userId, @RequestParam(defaultValue = "FULL") ExpenseView view,
+			@RequestParam(defaultValue = "ROWS") ExpenseShape shape, WebRequest request) {
+		if(isNotModified(request, userId, true))
+			return null;
+		return new ResponseEntity<>(inShape(userId, expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusMonths(3), LocalDateTime.now(), userId, view.getType()), view, shape), HttpStatus.OK);
 	}
 
 	/**
@@ -353,9 +671,12 @@ public class ExpenseController {
 	 * @param userId {@link String} id of the user associated with the expense
 	 * @param startDate {@link LocalDateTime} the start date for the range of dates
 	 * @param endDate {@link LocalDateTime} the end date for the range of dates
+	 * @param view {@link ExpenseView} FULL for every field, SUMMARY to leave out the full description
+	 * @param shape {@link ExpenseShape} ROWS for one object per expense, COMPACT for one array per field
+	 * @param request {@link WebRequest} used to answer a current If-None-Match with 304 Not Modified
 	 * @return {@link ResponseEntity} containing a list of ExpenseDTOs with the given user id and is from within the two dates if no api errors are thrown
 	 */
-	@Operation(summary = "Get Expenses for a user within the date range", description = "Gets Expenses for a user within the specified date range where startDate is the left bound and endDate is the right bound", responses = {
+	@Operation(summary = "Get Expenses for a user within the date range", description = "Gets Expenses for a user within the specified date range where startDate is the left bound and endDate is the right bound. Pass view=SUMMARY to leave out the full description and shape=COMPACT to send every field as one array, with the user id and each category sent once", responses = {
 			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ExpenseDTO.class)), examples = {
 					@ExampleObject(value = "[\n" +
 							"    {\n" +
@@ -383,6 +704,7 @@ public class ExpenseController {
 							"        \"userId\": \"6748299eceea026ca6ef5f0c\"\n" +
 							"    }\n" +
 							"]") })),
+			@ApiResponse(description = "Not Modified, the user's expenses didn't change since the ETag in If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
 					@ExampleObject(value = "{\n" +
 							"    \"apierror\": {\n" +
@@ -393,8 +715,196 @@ public class ExpenseController {
 							"    }\n" +
 							"}") }))})
 	@GetMapping("/get/{userId}/{startDate}/{endDate}")
-	public ResponseEntity<Object> getExpenseByUserIdWithinCustomRange(@PathVariable String userId, @PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate) {
-		return new ResponseEntity<>(DTOMapper.mapToExpenseDTO(expenseService.readExpensesWithDateRange(startDate, endDate, userId)), HttpStatus.OK);
+	public ResponseEntity<Object> getExpenseByUserIdWithinCustomRange(@PathVariable String userId, @PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate, @RequestParam(defaultValue = "FULL") ExpenseView view,
+			@RequestParam(defaultValue = "ROWS") ExpenseShape shape, WebRequest request) {
+		if(isNotModified(request, userId, false))
+			return null;
+		return new ResponseEntity<>(inShape(userId, expenseService.readExpensesWithDateRange(startDate, endDate, userId, view.getType()), view, shape), HttpStatus.OK);
+	}
+
+	/**
+	 * Gets a user's spending totals per category between two dates
+	 * @param userId {@link String} id of the user associated with the expenses
+	 * @param startDate {@link LocalDateTime} the inclusive start date for the range of dates
+	 * @param endDate {@link LocalDateTime} the exclusive end date for the range of dates
+	 * @return {@link ResponseEntity} containing a list of SpendingSummaryDTOs, one per category, if no api errors are thrown
+	 */
+	@Operation(summary = "Summarize a user's spending by category", description = "Gets the sum, count, min, max and average amount of a user's expenses per category within the specified date range. " +
+			"Expenses without a category are grouped under 'Uncategorized'", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = SpendingSummaryDTO.class)), examples = {
+					@ExampleObject(value = "[\n" +
+							"    {\n" +
+							"        \"key\": \"Home\",\n" +
+							"        \"total\": 1250.0,\n" +
+							"        \"count\": 3,\n" +
+							"        \"min\": 50.0,\n" +
+							"        \"max\": 1000.0,\n" +
+							"        \"average\": 416.6666666666667\n" +
+							"    }\n" +
+							"]") })),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@GetMapping("/summary/category/{userId}/{startDate}/{endDate}")
+	public ResponseEntity<Object> getSpendingSummaryByCategory(@PathVariable String userId, @PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate) {
+		return new ResponseEntity<>(expenseService.summarizeByCategory(userId, startDate, endDate), HttpStatus.OK);
+	}
+
+	/**
+	 * Gets a user's spending totals per day, week or month between two dates
+	 * @param userId {@link String} id of the user associated with the expenses
+	 * @param period {@link SummaryPeriod} the period the expenses are grouped by
+	 * @param startDate {@link LocalDateTime} the inclusive start date for the range of dates
+	 * @param endDate {@link LocalDateTime} the exclusive end date for the range of dates
+	 * @return {@link ResponseEntity} containing a list of SpendingSummaryDTOs, one per period, if no api errors are thrown
+	 */
+	@Operation(summary = "Summarize a user's spending by period", description = "Gets the sum, count, min, max and average amount of a user's expenses per period (DAY, WEEK or MONTH) within the specified date range. " +
+			"Each summary is keyed by the first day of its period", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = SpendingSummaryDTO.class)), examples = {
+					@ExampleObject(value = "[\n" +
+							"    {\n" +
+							"        \"key\": \"2024-11-01\",\n" +
+							"        \"total\": 21.0,\n" +
+							"        \"count\": 2,\n" +
+							"        \"min\": 10.5,\n" +
+							"        \"max\": 10.5,\n" +
+							"        \"average\": 10.5\n" +
+							"    }\n" +
+							"]") })),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@GetMapping("/summary/period/{userId}/{period}/{startDate}/{endDate}")
+	public ResponseEntity<Object> getSpendingSummaryByPeriod(@PathVariable String userId, @PathVariable SummaryPeriod period, @PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate) {
+		return new ResponseEntity<>(expenseService.summarizeByPeriod(userId, period, startDate, endDate), HttpStatus.OK);
+	}
+
+	/**
+	 * Gets the spending totals of every user between two dates
+	 * @param startDate {@link LocalDateTime} the inclusive start date for the range of dates
+	 * @param endDate {@link LocalDateTime} the exclusive end date for the range of dates
+	 * @return {@link ResponseEntity} containing a list of SpendingSummaryDTOs, one per user, if no api errors are thrown
+	 */
+	@Operation(summary = "Summarize spending by user", description = "Gets the sum, count, min, max and average amount of every user's expenses within the specified date range, highest total first. Requires the ADMIN role", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = SpendingSummaryDTO.class)), examples = {
+					@ExampleObject(value = "[\n" +
+							"    {\n" +
+							"        \"key\": \"6748299eceea026ca6ef5f0c\",\n" +
+							"        \"total\": 21.0,\n" +
+							"        \"count\": 2,\n" +
+							"        \"min\": 10.5,\n" +
+							"        \"max\": 10.5,\n" +
+							"        \"average\": 10.5\n" +
+							"    }\n" +
+							"]") }))})
+	@GetMapping("/summary/user/{startDate}/{endDate}")
+	public ResponseEntity<Object> getSpendingSummaryByUser(@PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate) {
+		return new ResponseEntity<>(expenseService.summarizeByUser(startDate, endDate), HttpStatus.OK);
+	}
+
+	/**
+	 * Gets a user's spending totals per category for a predefined window from the precomputed rollups
+	 * @param userId {@link String} id of the user associated with the expenses
+	 * @param window {@link SpendingWindow} the window, ending today, to total
+	 * @return {@link ResponseEntity} containing a list of SpendingSummaryDTOs, one per category, if no api errors are thrown
+	 */
+	@Operation(summary = "Get a user's spending totals by category", description = "Gets the sum, count and average amount of a user's expenses per category " +
+			"for the past week, month or three months (PAST_WEEK, PAST_MONTH, PAST_THREE_MONTHS) in whole days. Read from precomputed rollups so min and max are always null", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = SpendingSummaryDTO.class)), examples = {
+					@ExampleObject(value = "[\n" +
+							"    {\n" +
+							"        \"key\": \"Home\",\n" +
+							"        \"total\": 1250.0,\n" +
+							"        \"count\": 3,\n" +
+							"        \"min\": null,\n" +
+							"        \"max\": null,\n" +
+							"        \"average\": 416.6666666666667\n" +
+							"    }\n" +
+							"]") })),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@GetMapping("/totals/{userId}")
+	public ResponseEntity<Object> getSpendingTotals(@PathVariable String userId, @RequestParam(defaultValue = "PAST_MONTH") SpendingWindow window) {
+		LocalDate today = LocalDate.now();
+		return new ResponseEntity<>(expenseService.readSpendingTotals(userId, window.startFrom(today), today), HttpStatus.OK);
+	}
+
+	/**
+	 * Gets a user's spending totals per day or month between two days from the precomputed rollups
+	 * @param userId {@link String} id of the user associated with the expenses
+	 * @param granularity {@link ExpenseRollup.Granularity} the size of the periods
+	 * @param startDate {@link LocalDate} the first day of the range
+	 * @param endDate {@link LocalDate} the last day of the range, inclusive
+	 * @return {@link ResponseEntity} containing a list of SpendingSummaryDTOs, one per period, if no api errors are thrown
+	 */
+	@Operation(summary = "Get a user's spending trend", description = "Gets the sum, count and average amount of a user's expenses per DAY or MONTH between two days (yyyy-MM-dd, both inclusive). " +
+			"Each entry is keyed by the first day of its period. Read from precomputed rollups so min and max are always null", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = SpendingSummaryDTO.class)), examples = {
+					@ExampleObject(value = "[\n" +
+							"    {\n" +
+							"        \"key\": \"2024-11-01\",\n" +
+							"        \"total\": 21.0,\n" +
+							"        \"count\": 2,\n" +
+							"        \"min\": null,\n" +
+							"        \"max\": null,\n" +
+							"        \"average\": 10.5\n" +
+							"    }\n" +
+							"]") })),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@GetMapping("/trend/{userId}/{granularity}/{startDate}/{endDate}")
+	public ResponseEntity<Object> getSpendingTrend(@PathVariable String userId, @PathVariable ExpenseRollup.Granularity granularity,
+			@PathVariable LocalDate startDate, @PathVariable LocalDate endDate) {
+		return new ResponseEntity<>(expenseService.readSpendingTrend(userId, granularity, startDate, endDate), HttpStatus.OK);
+	}
+
+	/**
+	 * Recomputes a user's spending rollups from its expenses
+	 * @param userId {@link String} id of the user whose rollups are rebuilt
+	 * @return {@link ResponseEntity} containing the number of expenses the rollups were rebuilt from if no api errors are thrown
+	 */
+	@Operation(summary = "Rebuild a user's spending rollups", description = "Recomputes the rollups behind the totals and trend endpoints from the user's expenses. " +
+			"Used to backfill and repair rollups, run while the user isn't writing expenses. Requires the ADMIN role", responses = {
+			@ApiResponse(description = "Success", responseCode = "200", content = @Content(schema = @Schema(implementation = Long.class), examples = {
+					@ExampleObject(value = "1250") })),
+			@ApiResponse(description = "Bad Request/ No User exists with that ID", responseCode = "404", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"NOT_FOUND\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:44:17\",\n" +
+							"        \"message\": \"User was not found for parameters {id=674560cbf5f7ca5c0e6720a}\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
+	@PostMapping("/rollup/rebuild/{userId}")
+	public ResponseEntity<Object> rebuildRollups(@PathVariable String userId) {
+		return new ResponseEntity<>(expenseService.rebuildRollups(userId), HttpStatus.OK);
 	}
 
 	/**
@@ -478,8 +988,42 @@ public class ExpenseController {
 					@ExampleObject(value = "Loans") })) })
 	@PostMapping("/createCategory/{categoryName}")
 	public ResponseEntity<Object> createExpenseCategory(@PathVariable String categoryName) {
-		Category newCategory = new Category();
-		newCategory.setName(categoryName);
-		return new ResponseEntity<>(expenseService.checkAndAddCategory(newCategory).getName(), HttpStatus.OK);
+		return new ResponseEntity<>(expenseService.createCategory(categoryName).getName(), HttpStatus.OK);
+	}
+
+	/**
+	 * Answers a conditional request for a user's expenses with 304 Not Modified, before any expense is read, if the
+	 * client's ETag matches the current version of the user's expenses
+	 * @param request {@link WebRequest} the request, the ETag (and Last-Modified) headers are set on its response
+	 * @param userId {@link String} id of the user whose expenses are read
+	 * @param dailyWindow {@code boolean} true if the response covers a window ending today, its ETag then also changes every day
+	 * 			and no Last-Modified is sent since the window moves without the expenses changing
+	 * @return {@code true} if the request was answered with 304 and the endpoint must return {@code null}
+	 */
+	private boolean isNotModified(WebRequest request, String userId, boolean dailyWindow) {
+		// users whose expenses were never written get no validators, so a missing user or empty result is never answered with 304
+		Optional<ExpenseVersion> version = expenseService.readExpenseVersion(userId);
+		if(version.isEmpty())
+			return false;
+		// weak, the same version is served gzip compressed or not and as JSON or a binary format. Tomcat also never
+		// compresses a response carrying a strong ETag
+		String etag = "W/\"" + version.get().getVersion() + (dailyWindow ? "-" + LocalDate.now() : "") + "\"";
+		if(dailyWindow)
+			return request.checkNotModified(etag);
+		return request.checkNotModified(etag, version.get().getModifiedAt().toEpochMilli());
+	}
+
+	/**
+	 * Puts a list of a user's expenses in the requested shape
+	 * @param userId {@link String} id of the user the expenses belong to
+	 * @param expenses {@link List} of {@link ExpenseListItem} the expenses read in the requested view
+	 * @param view {@link ExpenseView} the view the expenses were read in
+	 * @param shape {@link ExpenseShape} the requested shape
+	 * @return {@link Object} the list itself for ROWS, a {@link CompactExpenseListDTO} for COMPACT
+	 */
+	private Object inShape(String userId, List<? extends ExpenseListItem> expenses, ExpenseView view, ExpenseShape shape) {
+		if(shape == ExpenseShape.COMPACT)
+			return DTOMapper.mapToCompactExpenseListDTO(userId, expenses, view == ExpenseView.FULL);
+		return expenses;
 	}
 }
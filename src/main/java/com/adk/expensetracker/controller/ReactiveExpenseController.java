@@ -0,0 +1,243 @@
+package com.adk.expensetracker.controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.dto.ExpensePageDTO;
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.dto.SummaryPeriod;
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.service.ExpenseService;
+import com.adk.expensetracker.service.ReactiveExpenseService;
+import com.adk.expensetracker.util.DTOMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking versions of the {@link ExpenseController} endpoints served when the application runs on the reactive stack.
+ * Lists are written as they are read from the database so large responses are sent with backpressure instead of being
+ * collected in memory first. Responses and errors are the same as the servlet endpoints
+ */
+@RestController
+@RequestMapping("/expense")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExpenseController {
+
+	@Autowired
+	ReactiveExpenseService expenseService;
+
+	/**
+	 * Creates a new expense and add it to a user
+	 * @param userId {@link String} the id of the user to add the expense to
+	 * @param expense {@link Expense} the expense to add
+	 * @return {@link Mono} of {@link ExpenseDTO} of the saved expense
+	 */
+	@Operation(summary = "Create a new Expense", description = "Creates a new expense by taking in a JSON Expense Object in the request body and a user ID in the request parameters. " +
+			"Required fields: shortDescription, fullDescription, amount, date")
+	@PostMapping("/create/{userId}")
+	public Mono<ExpenseDTO> createExpense(@PathVariable String userId, @RequestBody Expense expense) {
+		return expenseService.createExpense(userId, expense).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Gets an expense by the expense id
+	 * @param expenseId {@link String} id of the expense
+	 * @return {@link Mono} of {@link ExpenseDTO} with the given id
+	 */
+	@Operation(summary = "Retrieve an Expense By its ID", description = "Retrieves an Expense By its ID")
+	@GetMapping("/getByExpenseId/{expenseId}")
+	public Mono<ExpenseDTO> getExpenseByExpenseId(@PathVariable String expenseId) {
+		return expenseService.readExpense(expenseId).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Gets all expenses by the user id
+	 * @param userId {@link String} the user id associated with the expense
+	 * @return {@link Flux} of {@link ExpenseDTO} with the user id
+	 */
+	@Operation(summary = "Retrieve Expenses By its user ID", description = "Retrieves all Expenses By its user ID ordered by date (newest first), written as they are read. " +
+			"Send Accept: application/x-ndjson to receive one ExpenseDTO per line instead of a JSON array")
+	@GetMapping("/getByUserId/{userId}")
+	public Flux<ExpenseDTO> getExpenseByUserId(@PathVariable String userId) {
+		return expenseService.readExpensesForUser(userId).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Gets a single page of expenses by the user id using a keyset cursor
+	 * @param userId {@link String} the user id associated with the expense
+	 * @param cursor {@link String} the opaque cursor returned with the previous page, omitted for the first page
+	 * @param size {@code int} the maximum number of expenses returned in the page
+	 * @return {@link Mono} of {@link ExpensePageDTO} containing the page and the cursor of the next page
+	 */
+	@Operation(summary = "Retrieve a page of Expenses By its user ID", description = "Retrieves a page of Expenses By its user ID ordered by date (newest first). " +
+			"Pass the nextCursor of a page as the cursor to retrieve the following page, nextCursor is null on the last page")
+	@GetMapping("/getPageByUserId/{userId}")
+	public Mono<ExpensePageDTO> getExpensePageByUserId(@PathVariable String userId, @RequestParam(required = false) String cursor,
+													   @RequestParam(defaultValue = "50") int size) {
+		int pageSize = Math.max(1, Math.min(size, ExpenseService.MAX_PAGE_SIZE));
+		return expenseService.readExpensePageForUser(userId, cursor, pageSize).collectList()
+				.map(expenses -> DTOMapper.mapToExpensePageDTO(expenses, pageSize));
+	}
+
+	/**
+	 * Streams all expenses by the user id
+	 * @param userId {@link String} the user id associated with the expense
+	 * @param format {@link String} "ndjson" to write one ExpenseDTO per line or "array" to write a single JSON array
+	 * @return {@link ResponseEntity} containing a Flux of ExpenseDTOs with the user id
+	 */
+	@Operation(summary = "Stream Expenses By its user ID", description = "Streams all Expenses By its user ID ordered by date (newest first). " +
+			"The default format is newline delimited JSON (application/x-ndjson), pass format=array to receive a single JSON array instead")
+	@GetMapping("/streamByUserId/{userId}")
+	public ResponseEntity<Flux<ExpenseDTO>> streamExpensesByUserId(@PathVariable String userId, @RequestParam(defaultValue = "ndjson") String format) {
+		MediaType mediaType = "array".equalsIgnoreCase(format) ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON;
+		return ResponseEntity.ok().contentType(mediaType).body(expenseService.streamExpensesForUser(userId).map(DTOMapper::mapToExpenseDTO));
+	}
+
+	/**
+	 * Gets a list of expenses by its user id and category
+	 * @param userId {@link String} the id of the user associated with the expense
+	 * @param categoryName {@link String} the name of the category
+	 * @return {@link Flux} of {@link ExpenseDTO} with the given user id and category name
+	 */
+	@Operation(summary = "Retrieve Expenses By its user ID and category", description = "Retrieves Expenses By its user ID and category name")
+	@GetMapping("/getByCategory/{userId}/{categoryName}")
+	public Flux<ExpenseDTO> getExpenseForUserByCategory(@PathVariable String userId, @PathVariable String categoryName) {
+		return expenseService.readExpenseForUserByCategory(userId, categoryName).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Gets all expenses for a user from the past week
+	 * @param userId {@link String} id of the user associated with the expense
+	 * @return {@link Flux} of {@link ExpenseDTO} with the given user id from within the past week
+	 */
+	@Operation(summary = "Retrieve Expenses By its user ID within the past week", description = "Retrieves Expenses By its user ID within the past week")
+	@GetMapping("/getPastWeek/{userId}")
+	public Flux<ExpenseDTO> getExpenseByUserIdWithinLastWeek(@PathVariable String userId) {
+		return expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusDays(7), LocalDateTime.now(), userId).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Gets all expenses for a user from the past month
+	 * @param userId {@link String} id of the user associated with the expense
+	 * @return {@link Flux} of {@link ExpenseDTO} with the given user id from within the past month
+	 */
+	@Operation(summary = "Retrieve Expenses By its user ID within the past month", description = "Retrieves Expenses By its user ID within the past month")
+	@GetMapping("/getPastMonth/{userId}")
+	public Flux<ExpenseDTO> getExpenseByUserIdWithinPastMonth(@PathVariable String userId) {
+		return expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusMonths(1), LocalDateTime.now(), userId).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Gets all expenses for a user from the past 3 months
+	 * @param userId {@link String} id of the user associated with the expense
+	 * @return {@link Flux} of {@link ExpenseDTO} with the given user id from within the past 3 months
+	 */
+	@Operation(summary = "Retrieve Expenses By its user ID within the past three months", description = "Retrieves Expenses By its user ID within the past three months")
+	@GetMapping("/getPastThreeMonths/{userId}")
+	public Flux<ExpenseDTO> getExpenseByUserIdWithinPastThreeMonths(@PathVariable String userId) {
+		return expenseService.readExpensesWithDateRange(LocalDate.now().atStartOfDay().minusMonths(3), LocalDateTime.now(), userId).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Gets all expenses for a user between two dates
+	 * @param userId {@link String} id of the user associated with the expense
+	 * @param startDate {@link LocalDateTime} the start date for the range of dates
+	 * @param endDate {@link LocalDateTime} the end date for the range of dates
+	 * @return {@link Flux} of {@link ExpenseDTO} with the given user id and a date between the dates
+	 */
+	@Operation(summary = "Retrieve Expenses By its user ID within a custom date range", description = "Retrieves Expenses By its user ID within a custom date range")
+	@GetMapping("/get/{userId}/{startDate}/{endDate}")
+	public Flux<ExpenseDTO> getExpenseByUserIdWithinCustomRange(@PathVariable String userId, @PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate) {
+		return expenseService.readExpensesWithDateRange(startDate, endDate, userId).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Summarizes a user's spending per category within a date range
+	 * @param userId {@link String} id of the user
+	 * @param startDate {@link LocalDateTime} inclusive start of the range
+	 * @param endDate {@link LocalDateTime} exclusive end of the range
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} one per category
+	 */
+	@Operation(summary = "Summarize a user's spending by category", description = "Totals, counts, minimum, maximum and average of a user's expenses per category, startDate inclusive and endDate exclusive")
+	@GetMapping("/summary/category/{userId}/{startDate}/{endDate}")
+	public Flux<SpendingSummaryDTO> getSpendingSummaryByCategory(@PathVariable String userId, @PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate) {
+		return expenseService.summarizeByCategory(userId, startDate, endDate);
+	}
+
+	/**
+	 * Summarizes a user's spending per day, week or month within a date range
+	 * @param userId {@link String} id of the user
+	 * @param period {@link SummaryPeriod} the period expenses are grouped into
+	 * @param startDate {@link LocalDateTime} inclusive start of the range
+	 * @param endDate {@link LocalDateTime} exclusive end of the range
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} one per period with expenses
+	 */
+	@Operation(summary = "Summarize a user's spending by period", description = "Totals, counts, minimum, maximum and average of a user's expenses per DAY, WEEK or MONTH, startDate inclusive and endDate exclusive")
+	@GetMapping("/summary/period/{userId}/{period}/{startDate}/{endDate}")
+	public Flux<SpendingSummaryDTO> getSpendingSummaryByPeriod(@PathVariable String userId, @PathVariable SummaryPeriod period, @PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate) {
+		return expenseService.summarizeByPeriod(userId, period, startDate, endDate);
+	}
+
+	/**
+	 * Summarizes spending per user within a date range
+	 * @param startDate {@link LocalDateTime} inclusive start of the range
+	 * @param endDate {@link LocalDateTime} exclusive end of the range
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} one per user
+	 */
+	@Operation(summary = "Summarize spending by user", description = "Totals, counts, minimum, maximum and average of expenses per user, highest total first. Requires the ADMIN role")
+	@GetMapping("/summary/user/{startDate}/{endDate}")
+	public Flux<SpendingSummaryDTO> getSpendingSummaryByUser(@PathVariable LocalDateTime startDate, @PathVariable LocalDateTime endDate) {
+		return expenseService.summarizeByUser(startDate, endDate);
+	}
+
+	/**
+	 * Updates an existing expense
+	 * @param expenseId {@link String} id of the expense
+	 * @param expense {@link Expense} the updated expense
+	 * @return {@link Mono} of {@link ExpenseDTO} of the updated expense
+	 */
+	@Operation(summary = "Update an Expense", description = "Updates an existing expense by taking in a JSON Expense Object in the request body and an expense ID in the request parameters. " +
+			"Required fields: shortDescription, fullDescription, amount, date")
+	@PostMapping("/update/{expenseId}")
+	public Mono<ExpenseDTO> updateExpense(@PathVariable String expenseId, @RequestBody Expense expense) {
+		return expenseService.updateExpense(expenseId, expense).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Deletes an expense
+	 * @param expenseId {@link String} id of the expense
+	 * @return {@link Mono} of {@link ExpenseDTO} of the deleted expense
+	 */
+	@Operation(summary = "Delete an Expense", description = "Deletes an expense by its ID")
+	@DeleteMapping("/delete/{expenseId}")
+	public Mono<ExpenseDTO> deleteExpense(@PathVariable String expenseId) {
+		return expenseService.deleteExpense(expenseId).map(DTOMapper::mapToExpenseDTO);
+	}
+
+	/**
+	 * Creates a new expense category
+	 * @param categoryName {@link String} the name of the category
+	 * @return {@link Mono} of {@link String} the name of the category
+	 */
+	@Operation(summary = "Create an Expense Category", description = "Creates an expense category. Requires the ADMIN role")
+	@PostMapping("/createCategory/{categoryName}")
+	public Mono<String> createExpenseCategory(@PathVariable String categoryName) {
+		return expenseService.createCategory(categoryName).map(Category::getName);
+	}
+}
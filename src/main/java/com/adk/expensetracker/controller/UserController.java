@@ -66,6 +66,15 @@ public class UserController {
 							"        \"message\": \"The username 'admin' exists already!\",\n" +
 							"        \"debugMessage\": null\n" +
 							"    }\n" +
+							"}") })),
+			@ApiResponse(description = "Too Many Requests/ Password hashing is overloaded", responseCode = "429", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"TOO_MANY_REQUESTS\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:42:09\",\n" +
+							"        \"message\": \"Too many logins and registrations are waiting to be processed, try again shortly!\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
 							"}") })) })
 	@PostMapping("/register")
 	public ResponseEntity<Object> createUser(@RequestBody RegisterDTO user) {
@@ -117,7 +126,16 @@ public class UserController {
 							+ "        \"timestamp\": \"11-11-2024 02:25:54\",\r\n"
 							+ "        \"message\": \"One of the Required fields was missing for the passed in entity!\",\r\n"
 							+ "        \"debugMessage\": \"User was missing value of field 'username' which is of class java.lang.String\"\r\n"
-							+ "    }\r\n" + "}") })),})
+							+ "    }\r\n" + "}") })),
+			@ApiResponse(description = "Too Many Requests/ Password hashing is overloaded", responseCode = "429", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"TOO_MANY_REQUESTS\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:42:09\",\n" +
+							"        \"message\": \"Too many logins and registrations are waiting to be processed, try again shortly!\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
+							"}") }))})
 	@PostMapping("/login")
 	public ResponseEntity<Object> validateUser(@RequestBody LoginDTO user) {
 		return new ResponseEntity<>(userService.validateUser(user), HttpStatus.OK);
@@ -156,6 +174,15 @@ public class UserController {
 							"        \"message\": \"User was not found for parameters {id=674b3a2f7f637a4fbadaadf}\",\n" +
 							"        \"debugMessage\": null\n" +
 							"    }\n" +
+							"}") })),
+			@ApiResponse(description = "Too Many Requests/ Password hashing is overloaded", responseCode = "429", content = @Content(schema = @Schema(implementation = ApiError.class), examples = {
+					@ExampleObject(value = "{\n" +
+							"    \"apierror\": {\n" +
+							"        \"status\": \"TOO_MANY_REQUESTS\",\n" +
+							"        \"timestamp\": \"30-11-2024 11:42:09\",\n" +
+							"        \"message\": \"Too many logins and registrations are waiting to be processed, try again shortly!\",\n" +
+							"        \"debugMessage\": null\n" +
+							"    }\n" +
 							"}") })) })
 	@PostMapping("/update/{userId}")
 	public ResponseEntity<Object> updateUserPassword(@PathVariable String userId, @RequestBody RegisterDTO user) {
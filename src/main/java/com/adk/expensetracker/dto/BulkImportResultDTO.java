@@ -0,0 +1,30 @@
+package com.adk.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO that contains the outcome of a bulk expense import
+ */
+@Data
+@AllArgsConstructor
+public class BulkImportResultDTO {
+    private int received;
+    private int inserted;
+    private int failed;
+    // the body turned out to be malformed part way, rows after the last received one weren't read
+    private boolean aborted;
+    private List<RowFailure> failures;
+
+    /**
+     * A row that wasn't imported, rows are numbered from 1 in the order they were sent
+     */
+    @Data
+    @AllArgsConstructor
+    public static class RowFailure {
+        private int row;
+        private String message;
+    }
+}
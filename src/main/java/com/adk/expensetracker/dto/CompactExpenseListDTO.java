@@ -0,0 +1,29 @@
+package com.adk.expensetracker.dto;
+
+import com.adk.expensetracker.model.Category;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO that contains a list of a user's expenses column by column. The user id is sent once and every category once in
+ * a dictionary, the i-th expense is made up of the i-th value of every column and its category is an index into the
+ * dictionary ({@code null} if it has none)
+ */
+@Data
+@AllArgsConstructor
+public class CompactExpenseListDTO {
+    private String userId;
+    private List<Category> categories;
+    private List<String> id;
+    private List<String> shortDescription;
+    // left out for the SUMMARY view
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> fullDescription;
+    private List<Double> amount;
+    private List<LocalDateTime> date;
+    private List<Integer> category;
+}
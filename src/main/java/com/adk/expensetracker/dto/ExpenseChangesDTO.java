@@ -0,0 +1,18 @@
+package com.adk.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO that contains the expenses of a user changed and deleted after a sync version, and the version to sync from next
+ */
+@Data
+@AllArgsConstructor
+public class ExpenseChangesDTO {
+    private List<ExpenseDTO> changed;
+    private List<String> deleted;
+    private Long version;
+    private boolean hasMore;
+}
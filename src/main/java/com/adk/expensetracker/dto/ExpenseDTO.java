@@ -1,17 +1,20 @@
 package com.adk.expensetracker.dto;
 
 import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.util.ExpenseDTOSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 /**
- * DTO that contains the information of an Expense
+ * DTO that contains the information of an Expense, serialized by {@link ExpenseDTOSerializer}
  */
 @Data
+@JsonSerialize(using = ExpenseDTOSerializer.class)
 @AllArgsConstructor
-public class ExpenseDTO {
+public class ExpenseDTO implements ExpenseListItem {
     private String id;
     private String shortDescription;
     private String fullDescription;
@@ -0,0 +1,24 @@
+package com.adk.expensetracker.dto;
+
+import com.adk.expensetracker.model.Category;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fields shared by the DTOs of every {@link ExpenseView}, used to build the compact list shape from either view.
+ * The full description is deliberately left out, a getter here would be serialized for views that don't carry it
+ */
+public interface ExpenseListItem {
+
+    String getId();
+
+    String getShortDescription();
+
+    Double getAmount();
+
+    LocalDateTime getDate();
+
+    Category getCategory();
+
+    String getUserId();
+}
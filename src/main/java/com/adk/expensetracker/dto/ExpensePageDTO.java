@@ -0,0 +1,16 @@
+package com.adk.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO that contains a single page of a user's expenses and the cursor needed to retrieve the next page
+ */
+@Data
+@AllArgsConstructor
+public class ExpensePageDTO {
+    private List<ExpenseDTO> expenses;
+    private String nextCursor;
+}
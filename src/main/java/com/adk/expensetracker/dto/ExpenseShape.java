@@ -0,0 +1,11 @@
+package com.adk.expensetracker.dto;
+
+/**
+ * Shapes that a list of expenses can be returned in
+ */
+public enum ExpenseShape {
+    // a JSON array with one object per expense
+    ROWS,
+    // a CompactExpenseListDTO, one array per field with categories referenced by their index in a dictionary
+    COMPACT
+}
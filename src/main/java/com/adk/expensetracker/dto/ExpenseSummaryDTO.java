@@ -0,0 +1,21 @@
+package com.adk.expensetracker.dto;
+
+import com.adk.expensetracker.model.Category;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO that contains the information of an Expense without its full description, used for list views
+ */
+@Data
+@AllArgsConstructor
+public class ExpenseSummaryDTO implements ExpenseListItem {
+    private String id;
+    private String shortDescription;
+    private Double amount;
+    private LocalDateTime date;
+    private Category category;
+    private String userId;
+}
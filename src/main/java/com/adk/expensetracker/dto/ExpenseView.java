@@ -0,0 +1,24 @@
+package com.adk.expensetracker.dto;
+
+/**
+ * Views that a list of expenses can be returned in. Expenses are read from the database straight into the view's DTO
+ * so only the fields of the view are fetched
+ */
+public enum ExpenseView {
+    FULL(ExpenseDTO.class),
+    SUMMARY(ExpenseSummaryDTO.class);
+
+    private final Class<? extends ExpenseListItem> type;
+
+    ExpenseView(Class<? extends ExpenseListItem> type) {
+        this.type = type;
+    }
+
+    /**
+     * Retrieves the DTO expenses are read into
+     * @return {@link Class} of the DTO
+     */
+    public Class<? extends ExpenseListItem> getType() {
+        return type;
+    }
+}
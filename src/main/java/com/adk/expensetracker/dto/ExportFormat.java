@@ -0,0 +1,35 @@
+package com.adk.expensetracker.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats that a user's expenses can be exported in
+ */
+public enum ExportFormat {
+    CSV(MediaType.parseMediaType("text/csv"), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Retrieves the content type of the format
+     * @return {@link MediaType} the content type
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Retrieves the file extension of the format
+     * @return {@link String} the extension without a leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,18 @@
+package com.adk.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * DTO that contains aggregated spending totals for a single group of expenses (a category, period or user)
+ */
+@Data
+@AllArgsConstructor
+public class SpendingSummaryDTO {
+    private String key;
+    private Double total;
+    private Long count;
+    private Double min;
+    private Double max;
+    private Double average;
+}
@@ -0,0 +1,25 @@
+package com.adk.expensetracker.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Predefined windows, ending today, that spending totals can be read for
+ */
+public enum SpendingWindow {
+    PAST_WEEK,
+    PAST_MONTH,
+    PAST_THREE_MONTHS;
+
+    /**
+     * Retrieves the first day of the window, matching the ranges of the past week/month/three months expense endpoints
+     * @param today {@link LocalDate} the last day of the window
+     * @return {@link LocalDate} the first day of the window
+     */
+    public LocalDate startFrom(LocalDate today) {
+        return switch (this) {
+            case PAST_WEEK -> today.minusDays(7);
+            case PAST_MONTH -> today.minusMonths(1);
+            case PAST_THREE_MONTHS -> today.minusMonths(3);
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.adk.expensetracker.dto;
+
+/**
+ * Periods that expenses can be grouped into when summarizing spending
+ */
+public enum SummaryPeriod {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month");
+
+    private final String unit;
+
+    SummaryPeriod(String unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Retrieves the MongoDB date unit of the period
+     * @return {@link String} the unit used by $dateTrunc
+     */
+    public String getUnit() {
+        return unit;
+    }
+}
@@ -0,0 +1,13 @@
+package com.adk.expensetracker.errorhandling;
+
+/**
+ * Exception used when a pagination cursor passed in by a client can't be decoded
+ */
+public class InvalidCursorException extends RuntimeException {
+
+	private static final long serialVersionUID = 4907012355468212781L;
+
+	public InvalidCursorException(String cursor) {
+        super("The cursor '" + cursor + "' is not a valid expense cursor!");
+    }
+}
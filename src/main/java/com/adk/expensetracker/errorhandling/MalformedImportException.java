@@ -0,0 +1,18 @@
+package com.adk.expensetracker.errorhandling;
+
+/**
+ * Exception used when a bulk import body can't be read at all, e.g. broken JSON syntax or a CSV without a header row.
+ * Problems with individual rows are reported per row instead
+ */
+public class MalformedImportException extends RuntimeException {
+
+	private static final long serialVersionUID = -2262415871904716322L;
+
+	public MalformedImportException(String message) {
+        super(message);
+    }
+
+	public MalformedImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package com.adk.expensetracker.errorhandling;
+
+/**
+ * Exception used when a password can't be hashed or verified because every password hashing thread is busy and its queue is full,
+ * or the password waited in the queue longer than the timeout. The hash was never started
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+	private static final long serialVersionUID = 2718903341866032155L;
+
+	public PasswordHashingOverloadedException() {
+        super("Too many logins and registrations are waiting to be processed, try again shortly!");
+    }
+}
@@ -0,0 +1,119 @@
+package com.adk.expensetracker.errorhandling;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebInputException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reactive counterpart of {@link RestExceptionHandler}, returns the same ApiErrors when the application runs on the reactive stack
+ */
+@Slf4j
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRestExceptionHandler {
+
+    /**
+     * Handle ServerWebInputException. Happens when request JSON is malformed or a parameter can't be converted.
+     *
+     * @param ex the ServerWebInputException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    protected ResponseEntity<Object> handleServerWebInput(ServerWebInputException ex) {
+        return buildResponseEntity(new ApiError(BAD_REQUEST, "Malformed JSON request", ex));
+    }
+
+    /**
+     * Handle Exception, handle exception for when an entity's field requires a value
+     *
+     * @param ex the Exception
+     * @return the ApiError object
+     */
+    @ExceptionHandler(FieldBlankException.class)
+    protected ResponseEntity<Object> handleFieldBlank(FieldBlankException ex) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage("One of the Required fields was missing for the passed in entity!");
+        apiError.setDebugMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    /**
+     * Handles EntityNotFoundException.
+     *
+     * @param ex the EntityNotFoundException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(EntityNotFoundException.class)
+    protected ResponseEntity<Object> handleEntityNotFound(EntityNotFoundException ex) {
+        ApiError apiError = new ApiError(NOT_FOUND);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    /**
+     * Handles UsernameAlreadyExistsException.
+     *
+     * @param ex the UsernameAlreadyExistsException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(UsernameAlreadyExistsException.class)
+    protected ResponseEntity<Object> handleUsernameAlreadyExists(UsernameAlreadyExistsException ex) {
+        ApiError apiError = new ApiError(HttpStatus.CONFLICT);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    /**
+     * Handles IncorrectPasswordException.
+     *
+     * @param ex the IncorrectPasswordException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(IncorrectPasswordException.class)
+    protected ResponseEntity<Object> handleIncorrectPassword(IncorrectPasswordException ex) {
+        ApiError apiError = new ApiError(HttpStatus.UNAUTHORIZED);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    /**
+     * Handles InvalidCursorException.
+     *
+     * @param ex the InvalidCursorException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    protected ResponseEntity<Object> handleInvalidCursor(InvalidCursorException ex) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    /**
+     * Handles PasswordHashingOverloadedException.
+     *
+     * @param ex the PasswordHashingOverloadedException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    protected ResponseEntity<Object> handlePasswordHashingOverloaded(PasswordHashingOverloadedException ex) {
+        ApiError apiError = new ApiError(HttpStatus.TOO_MANY_REQUESTS);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    private ResponseEntity<Object> buildResponseEntity(ApiError apiError) {
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+}
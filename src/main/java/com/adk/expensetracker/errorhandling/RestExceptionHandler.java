@@ -3,6 +3,7 @@ package com.adk.expensetracker.errorhandling;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -32,6 +33,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @ControllerAdvice
 @Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 	
 	 /**
@@ -189,6 +191,58 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return buildResponseEntity(apiError);
     }
 
+    /**
+     * Handles InvalidCursorException. Created to encapsulate errors with more detail than InvalidCursorException.
+     *
+     * @param ex the InvalidCursorException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    protected ResponseEntity<Object> handleInvalidCursor(InvalidCursorException ex) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    /**
+     * Handles MalformedImportException. Created to encapsulate errors with more detail than MalformedImportException.
+     *
+     * @param ex the MalformedImportException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(MalformedImportException.class)
+    protected ResponseEntity<Object> handleMalformedImport(MalformedImportException ex) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    /**
+     * Handles SyncHistoryExpiredException. Created to encapsulate errors with more detail than SyncHistoryExpiredException.
+     *
+     * @param ex the SyncHistoryExpiredException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(SyncHistoryExpiredException.class)
+    protected ResponseEntity<Object> handleSyncHistoryExpired(SyncHistoryExpiredException ex) {
+        ApiError apiError = new ApiError(HttpStatus.GONE);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    /**
+     * Handles PasswordHashingOverloadedException. Created to encapsulate errors with more detail than PasswordHashingOverloadedException.
+     *
+     * @param ex the PasswordHashingOverloadedException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    protected ResponseEntity<Object> handlePasswordHashingOverloaded(PasswordHashingOverloadedException ex) {
+        ApiError apiError = new ApiError(HttpStatus.TOO_MANY_REQUESTS);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
     private ResponseEntity<Object> buildResponseEntity(ApiError apiError) {
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
@@ -0,0 +1,13 @@
+package com.adk.expensetracker.errorhandling;
+
+/**
+ * Exception used when a client syncs from a version older than the deleted expenses are kept for
+ */
+public class SyncHistoryExpiredException extends RuntimeException {
+
+	private static final long serialVersionUID = 6230187415530913372L;
+
+	public SyncHistoryExpiredException(String userId, long since) {
+        super("Changes of user " + userId + " after version " + since + " are no longer kept, sync again from version 0!");
+    }
+}
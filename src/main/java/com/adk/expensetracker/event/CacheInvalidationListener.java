@@ -0,0 +1,76 @@
+package com.adk.expensetracker.event;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.ExpenseVersion;
+import com.adk.expensetracker.model.User;
+import com.adk.expensetracker.service.CategoryCache;
+import com.adk.expensetracker.service.CustomUserDetailsService;
+import com.adk.expensetracker.service.ExpenseVersionService;
+import com.adk.expensetracker.service.UserExistenceCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Invalidates the in-process caches when their data is written by any instance, so another instance's write is seen
+ * as soon as its change arrives instead of after the cache expires. Writes of this instance already update its caches
+ */
+@Component
+@ConditionalOnProperty(name = "expense.events.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationListener implements DataChangeListener {
+
+	private final ExpenseVersionService versionService;
+	private final CategoryCache categoryCache;
+	private final UserExistenceCache userExistenceCache;
+	private final CustomUserDetailsService userDetailsService;
+	private final String versionCollection;
+	private final String categoryCollection;
+	private final String userCollection;
+
+	public CacheInvalidationListener(MongoTemplate mongoTemplate, ExpenseVersionService versionService, CategoryCache categoryCache,
+									 UserExistenceCache userExistenceCache, CustomUserDetailsService userDetailsService) {
+		this.versionService = versionService;
+		this.categoryCache = categoryCache;
+		this.userExistenceCache = userExistenceCache;
+		this.userDetailsService = userDetailsService;
+		this.versionCollection = mongoTemplate.getCollectionName(ExpenseVersion.class);
+		this.categoryCollection = mongoTemplate.getCollectionName(Category.class);
+		this.userCollection = mongoTemplate.getCollectionName(User.class);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<String> collections() {
+		return Set.of(versionCollection, categoryCollection, userCollection);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onChanges(List<DataChangeEvent> events) {
+		for(DataChangeEvent event : events) {
+			if(event.collection().equals(versionCollection)) {
+				versionService.invalidate(event.id());
+			} else if(event.collection().equals(categoryCollection)) {
+				if(event.document() != null && event.document().getString("name") != null)
+					categoryCache.invalidate(event.document().getString("name"));
+				else
+					categoryCache.invalidateAll();
+			} else if(event.collection().equals(userCollection)) {
+				if(event.type() == DataChangeEvent.Type.DELETE) {
+					// only the id of a deleted user is known, not the username its details are cached by
+					userExistenceCache.evict(event.id());
+					userDetailsService.evictAll();
+				} else if(event.document() != null) {
+					userDetailsService.evict(event.document().getString("username"));
+				}
+			}
+		}
+	}
+}
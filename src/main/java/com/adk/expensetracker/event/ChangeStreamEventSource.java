@@ -0,0 +1,210 @@
+package com.adk.expensetracker.event;
+
+import com.adk.expensetracker.model.EventCheckpoint;
+import com.mongodb.MongoException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Reads the changes of the watched collections from a MongoDB change stream on a dedicated thread and publishes them
+ * through the {@link DataChangePublisher}. The resume token of the last change every listener has handled is checkpointed
+ * periodically, a restart replays at most the changes since the last checkpoint. When the database doesn't support change
+ * streams (it isn't a replica set) the publisher falls back to the writes of this instance, see {@link LocalDataChangeSource}
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "expense.events.enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeStreamEventSource implements ApplicationRunner, DisposableBean {
+
+	private static final int CHANGE_STREAM_UNSUPPORTED = 40573;
+	private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+	private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+	private final MongoTemplate mongoTemplate;
+	private final DataChangePublisher publisher;
+	private final List<String> collections;
+	private final String checkpointId;
+	private final Duration checkpointInterval;
+	// resume tokens of published changes by sequence number, waiting for every listener to handle them
+	private final NavigableMap<Long, String> pendingTokens = new TreeMap<>();
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	public ChangeStreamEventSource(MongoTemplate mongoTemplate, DataChangePublisher publisher,
+								   @Value("${expense.events.collections:user,category,expenseVersion}") List<String> collections,
+								   @Value("${expense.events.checkpoint-id:}") String checkpointId,
+								   @Value("${spring.application.name}") String applicationName,
+								   @Value("${expense.events.checkpoint-interval:5s}") Duration checkpointInterval) {
+		this.mongoTemplate = mongoTemplate;
+		this.publisher = publisher;
+		this.collections = collections;
+		this.checkpointId = checkpointId.isBlank() ? applicationName + "@" + hostName() : checkpointId;
+		this.checkpointInterval = checkpointInterval;
+		this.thread = new Thread(this::watch, "data-change-stream");
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		thread.start();
+	}
+
+	/**
+	 * Stops reading the change stream
+	 */
+	@Override
+	public void destroy() {
+		running = false;
+		thread.interrupt();
+	}
+
+	/**
+	 * Reads the change stream until stopped, reopening it from the last checkpoint after a failure
+	 */
+	private void watch() {
+		while(running) {
+			try {
+				consume();
+			} catch (MongoServerException e) {
+				if(!running)
+					return;
+				if(e.getCode() == CHANGE_STREAM_UNSUPPORTED) {
+					log.warn("Change streams are unavailable, only the writes of this instance are published as data change events");
+					publisher.useLocalFallback();
+					return;
+				}
+				if(e.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+					// the oplog rolled past the checkpoint, the changes in between can't be replayed
+					log.error("The checkpointed change stream position is no longer available, changes since it were missed");
+					mongoTemplate.remove(Query.query(Criteria.where("_id").is(checkpointId)), EventCheckpoint.class);
+					continue;
+				}
+				log.error("Change stream failed, reopening from the last checkpoint", e);
+				if(!sleep())
+					return;
+			} catch (MongoException e) {
+				// also thrown when the read is interrupted on shutdown
+				if(!running)
+					return;
+				log.error("Change stream failed, reopening from the last checkpoint", e);
+				if(!sleep())
+					return;
+			} catch (InterruptedException e) {
+				checkpoint();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Opens the change stream after the last checkpoint and publishes its changes, checkpointing every interval
+	 * @throws InterruptedException if interrupted while the publisher waits for queue space
+	 */
+	private void consume() throws InterruptedException {
+		ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+				.watch(List.of(Aggregates.match(Filters.in("ns.coll", collections))))
+				.fullDocument(FullDocument.UPDATE_LOOKUP);
+		EventCheckpoint checkpoint = mongoTemplate.findById(checkpointId, EventCheckpoint.class);
+		if(checkpoint != null)
+			stream = stream.resumeAfter(new BsonDocument("_data", new BsonString(checkpoint.getResumeToken())));
+		pendingTokens.clear();
+		Instant nextCheckpoint = Instant.now().plus(checkpointInterval);
+		try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+			while(running) {
+				// returns null once the server's await time passes without a change so checkpoints are written while idle
+				ChangeStreamDocument<Document> change = cursor.tryNext();
+				DataChangeEvent event = change == null ? null : toEvent(change);
+				if(event != null)
+					pendingTokens.put(publisher.publish(event), change.getResumeToken().getString("_data").getValue());
+				if(Instant.now().isAfter(nextCheckpoint)) {
+					checkpoint();
+					nextCheckpoint = Instant.now().plus(checkpointInterval);
+				}
+			}
+		}
+		checkpoint();
+	}
+
+	/**
+	 * Saves the resume token of the last change that every listener has handled
+	 */
+	private void checkpoint() {
+		Map.Entry<Long, String> delivered = pendingTokens.floorEntry(publisher.deliveredUpTo());
+		if(delivered == null)
+			return;
+		pendingTokens.headMap(delivered.getKey(), true).clear();
+		EventCheckpoint checkpoint = new EventCheckpoint();
+		checkpoint.setId(checkpointId);
+		checkpoint.setResumeToken(delivered.getValue());
+		checkpoint.setSavedAt(Instant.now());
+		mongoTemplate.save(checkpoint);
+	}
+
+	/**
+	 * Converts a change stream document to an event, only inserts, updates, replacements and deletes are published
+	 * @param change {@link ChangeStreamDocument} the change
+	 * @return {@link DataChangeEvent} the event, {@code null} for other operations
+	 */
+	private static DataChangeEvent toEvent(ChangeStreamDocument<Document> change) {
+		if(change.getNamespace() == null || change.getDocumentKey() == null)
+			return null;
+		String collection = change.getNamespace().getCollectionName();
+		String id = DataChangeEvent.idOf(change.getDocumentKey().get("_id"));
+		return switch (change.getOperationType()) {
+			case INSERT, UPDATE, REPLACE -> new DataChangeEvent(collection, DataChangeEvent.Type.UPSERT, id, change.getFullDocument());
+			case DELETE -> new DataChangeEvent(collection, DataChangeEvent.Type.DELETE, id, null);
+			default -> null;
+		};
+	}
+
+	/**
+	 * Names this instance's checkpoint when none is configured, every instance reads the stream at its own position
+	 * @return {@link String} the host name, stable across restarts of the same host
+	 */
+	private static String hostName() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			throw new IllegalStateException("The host name is unknown, set expense.events.checkpoint-id", e);
+		}
+	}
+
+	private boolean sleep() {
+		try {
+			Thread.sleep(RETRY_DELAY.toMillis());
+			return true;
+		} catch (InterruptedException e) {
+			return false;
+		}
+	}
+}
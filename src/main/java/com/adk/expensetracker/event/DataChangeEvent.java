@@ -0,0 +1,37 @@
+package com.adk.expensetracker.event;
+
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * A write to a watched collection, read from a MongoDB change stream or raised locally by the mapping events
+ * @param collection {@link String} name of the collection that was written
+ * @param type {@link Type} whether the document was written or deleted
+ * @param id {@link String} id of the document
+ * @param document {@link Document} the document as stored after the write, {@code null} for deletes
+ */
+public record DataChangeEvent(String collection, Type type, String id, Document document) {
+
+	public enum Type {
+		UPSERT,
+		DELETE
+	}
+
+	/**
+	 * Converts a stored document id to the string form used by the repositories
+	 * @param id {@link Object} the stored id, a {@link BsonValue} when read from a change stream
+	 * @return {@link String} the hex string of an {@link ObjectId}, or the id as a string
+	 */
+	public static String idOf(Object id) {
+		if(id instanceof BsonValue bsonValue) {
+			if(bsonValue.isObjectId())
+				return bsonValue.asObjectId().getValue().toHexString();
+			if(bsonValue.isString())
+				return bsonValue.asString().getValue();
+		}
+		if(id instanceof ObjectId objectId)
+			return objectId.toHexString();
+		return id == null ? null : id.toString();
+	}
+}
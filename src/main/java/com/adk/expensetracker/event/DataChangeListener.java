@@ -0,0 +1,23 @@
+package com.adk.expensetracker.event;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consumer of {@link DataChangeEvent}s registered with the {@link DataChangePublisher} by being a bean.
+ * Every listener is delivered its events in order on its own thread, in batches of at most the configured size
+ */
+public interface DataChangeListener {
+
+	/**
+	 * Names the collections whose changes are delivered to the listener
+	 * @return {@link Set} of {@link String} collection names
+	 */
+	Set<String> collections();
+
+	/**
+	 * Handles a batch of changes, in the order they were written. An exception is logged and the batch is not retried
+	 * @param events {@link List} of {@link DataChangeEvent} the changes
+	 */
+	void onChanges(List<DataChangeEvent> events);
+}
@@ -0,0 +1,141 @@
+package com.adk.expensetracker.event;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers {@link DataChangeEvent}s to every {@link DataChangeListener} through a bounded queue per listener, drained
+ * in batches by a thread per listener. Publishing blocks while a listener's queue is full, so a slow listener holds back
+ * the source instead of growing the heap: the change stream is read more slowly, or the local write that raised the event waits
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "expense.events.enabled", havingValue = "true", matchIfMissing = true)
+public class DataChangePublisher implements DisposableBean {
+
+	private final List<Subscription> subscriptions = new ArrayList<>();
+	private final AtomicLong published = new AtomicLong();
+	private volatile boolean localFallback;
+
+	public DataChangePublisher(List<DataChangeListener> listeners, MeterRegistry meterRegistry,
+							   @Value("${expense.events.queue-capacity:10000}") int queueCapacity,
+							   @Value("${expense.events.batch-size:500}") int batchSize) {
+		for(DataChangeListener listener : listeners) {
+			Subscription subscription = new Subscription(listener, queueCapacity, batchSize);
+			Gauge.builder("expense.events.queue.size", subscription.queue, BlockingQueue::size)
+					.description("Number of data change events waiting to be delivered to a listener")
+					.tag("listener", listener.getClass().getSimpleName())
+					.register(meterRegistry);
+			subscriptions.add(subscription);
+			subscription.thread.start();
+		}
+	}
+
+	/**
+	 * Queues an event for every listener of its collection, waiting while a listener's queue is full.
+	 * No lock is held while waiting, so local writes publishing concurrently only wait on the queues they fill
+	 * @param event {@link DataChangeEvent} the change
+	 * @return {@code long} the sequence number of the event, see {@link #deliveredUpTo()}
+	 * @throws InterruptedException if interrupted while waiting for queue space
+	 */
+	public long publish(DataChangeEvent event) throws InterruptedException {
+		long sequence = published.incrementAndGet();
+		for(Subscription subscription : subscriptions) {
+			if(subscription.listener.collections().contains(event.collection())) {
+				subscription.queue.put(new Sequenced(sequence, event));
+				subscription.enqueued = sequence;
+			}
+		}
+		return sequence;
+	}
+
+	/**
+	 * Finds the sequence number up to which every event has been handled by all of its listeners. Only exact while a
+	 * single thread publishes, like the change stream's, and calls it between publishing
+	 * @return {@code long} the highest sequence number such that it and every earlier event were delivered
+	 */
+	public long deliveredUpTo() {
+		long delivered = published.get();
+		for(Subscription subscription : subscriptions) {
+			// a listener that has caught up holds nothing back, events it isn't interested in never reach its queue
+			if(subscription.delivered != subscription.enqueued)
+				delivered = Math.min(delivered, subscription.delivered);
+		}
+		return delivered;
+	}
+
+	/**
+	 * Switches to publishing the writes of this instance, raised by the mapping events, since change streams are unavailable
+	 */
+	public void useLocalFallback() {
+		localFallback = true;
+	}
+
+	/**
+	 * @return {@code true} if events are published from local writes instead of a change stream
+	 */
+	public boolean isLocalFallback() {
+		return localFallback;
+	}
+
+	/**
+	 * Stops the delivery threads, events still queued are dropped
+	 */
+	@Override
+	public void destroy() {
+		subscriptions.forEach(subscription -> subscription.thread.interrupt());
+	}
+
+	private record Sequenced(long sequence, DataChangeEvent event) { }
+
+	/**
+	 * A listener with its queue and the thread delivering to it
+	 */
+	private static class Subscription {
+
+		private final DataChangeListener listener;
+		private final BlockingQueue<Sequenced> queue;
+		private final int batchSize;
+		private final Thread thread;
+		private volatile long enqueued;
+		private volatile long delivered;
+
+		Subscription(DataChangeListener listener, int queueCapacity, int batchSize) {
+			this.listener = listener;
+			this.queue = new ArrayBlockingQueue<>(queueCapacity);
+			this.batchSize = batchSize;
+			this.thread = new Thread(this::deliver, "data-change-" + listener.getClass().getSimpleName());
+			this.thread.setDaemon(true);
+		}
+
+		private void deliver() {
+			List<Sequenced> batch = new ArrayList<>(batchSize);
+			while(!Thread.currentThread().isInterrupted()) {
+				try {
+					batch.add(queue.take());
+				} catch (InterruptedException e) {
+					return;
+				}
+				queue.drainTo(batch, batchSize - 1);
+				try {
+					listener.onChanges(batch.stream().map(Sequenced::event).toList());
+				} catch (RuntimeException e) {
+					log.error("{} failed to handle {} data changes", listener.getClass().getSimpleName(), batch.size(), e);
+				}
+				delivered = batch.get(batch.size() - 1).sequence();
+				batch.clear();
+			}
+		}
+	}
+}
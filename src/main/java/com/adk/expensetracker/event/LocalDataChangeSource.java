@@ -0,0 +1,64 @@
+package com.adk.expensetracker.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fallback source of {@link DataChangeEvent}s used when change streams are unavailable, publishing the entity saves and
+ * deletes of this instance from the mapping events. Writes that bypass the mapping events (updates by query,
+ * find and modify, other instances) are not seen, and the event is published on the thread of the write
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "expense.events.enabled", havingValue = "true", matchIfMissing = true)
+public class LocalDataChangeSource extends AbstractMongoEventListener<Object> {
+
+	private final DataChangePublisher publisher;
+	private final List<String> collections;
+
+	public LocalDataChangeSource(DataChangePublisher publisher,
+								 @Value("${expense.events.collections:user,category,expenseVersion}") List<String> collections) {
+		this.publisher = publisher;
+		this.collections = collections;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAfterSave(AfterSaveEvent<Object> event) {
+		Document document = event.getDocument();
+		if(document != null)
+			publish(new DataChangeEvent(event.getCollectionName(), DataChangeEvent.Type.UPSERT, DataChangeEvent.idOf(document.get("_id")), document));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAfterDelete(AfterDeleteEvent<Object> event) {
+		// the event carries the delete's query, only deletes by a single id identify the deleted document
+		Document query = event.getDocument();
+		if(query != null && query.size() == 1 && query.get("_id") != null && !(query.get("_id") instanceof Document))
+			publish(new DataChangeEvent(event.getCollectionName(), DataChangeEvent.Type.DELETE, DataChangeEvent.idOf(query.get("_id")), null));
+	}
+
+	private void publish(DataChangeEvent event) {
+		if(!publisher.isLocalFallback() || !collections.contains(event.collection()))
+			return;
+		try {
+			publisher.publish(event);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.warn("Interrupted while publishing a change of {} {}", event.collection(), event.id());
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.adk.expensetracker.migration;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-shot job that rewrites expenses storing their {@code category} as a DBRef or an ObjectId so they store the
+ * category name instead, which is what the expense mapping reads. References to categories that no longer exist are removed.
+ * Enabled by setting {@code expense.migration.category-reference.enabled=true} and safe to run more than once
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "expense.migration.category-reference.enabled", havingValue = "true")
+public class ExpenseCategoryReferenceMigration implements ApplicationRunner {
+
+	private final MongoTemplate mongoTemplate;
+
+	@Value("${expense.migration.category-reference.batch-size:1000}")
+	private int batchSize;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		long migrated = migrate();
+		log.info("Migrated {} expenses from a category reference to a category name", migrated);
+	}
+
+	/**
+	 * Rewrites every expense whose category is neither missing, null nor a name in unordered batches, resolving the
+	 * referenced categories of each batch in a single query
+	 * @return {@code long} the number of expenses that were rewritten
+	 */
+	public long migrate() {
+		MongoCollection<Document> expenses = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Expense.class));
+		MongoCollection<Document> categories = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Category.class));
+		Bson pending = Filters.and(Filters.ne("category", null), Filters.not(Filters.type("category", BsonType.STRING)));
+		long migrated = 0;
+		List<Document> batch;
+		do {
+			batch = expenses.find(pending).projection(Projections.include("category")).limit(batchSize).into(new ArrayList<>());
+			if(batch.isEmpty())
+				break;
+			Set<Object> ids = new HashSet<>();
+			batch.forEach(expense -> ids.add(referencedCategoryId(expense.get("category"))));
+			ids.remove(null);
+			Map<Object, String> names = new HashMap<>();
+			categories.find(Filters.in("_id", ids)).projection(Projections.include("name"))
+					.forEach(category -> names.put(category.get("_id"), category.getString("name")));
+			List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+			// a name or no category at all moves each document out of the pending filter so the next batch starts where this one ended
+			for(Document expense : batch) {
+				String name = names.get(referencedCategoryId(expense.get("category")));
+				updates.add(new UpdateOneModel<>(Filters.eq("_id", expense.get("_id")),
+						name == null ? Updates.unset("category") : Updates.set("category", name)));
+			}
+			expenses.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+			migrated += batch.size();
+			log.debug("Migrated {} expenses so far", migrated);
+		} while(batch.size() == batchSize);
+		return migrated;
+	}
+
+	/**
+	 * Reads the referenced category id out of a stored category reference
+	 * @param category {@link Object} the stored reference, a {@link DBRef}, a DBRef decoded as a plain {@link Document} or the id itself
+	 * @return {@link Object} the id of the category, {@code null} if the reference is malformed
+	 */
+	private static Object referencedCategoryId(Object category) {
+		if(category instanceof DBRef dbRef)
+			return dbRef.getId();
+		if(category instanceof Document document)
+			return document.get("$id");
+		return category;
+	}
+}
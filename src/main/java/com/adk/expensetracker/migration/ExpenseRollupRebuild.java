@@ -0,0 +1,32 @@
+package com.adk.expensetracker.migration;
+
+import com.adk.expensetracker.service.ExpenseRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-shot job that recomputes the spending rollups of every user from their expenses, used to backfill the rollups of
+ * expenses written before rollups existed and to repair drift. Enabled by setting {@code expense.rollup.rebuild-on-startup=true}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "expense.rollup.rebuild-on-startup", havingValue = "true")
+public class ExpenseRollupRebuild implements ApplicationRunner {
+
+	private final ExpenseRollupService rollupService;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		long start = System.nanoTime();
+		long expenses = rollupService.rebuildAll();
+		log.info("Rebuilt spending rollups from {} expenses in {} ms", expenses, (System.nanoTime() - start) / 1_000_000);
+	}
+}
@@ -0,0 +1,93 @@
+package com.adk.expensetracker.migration;
+
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.service.ExpenseVersionService;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-shot job that stamps a sync version on expenses written before the delta sync existed, so a full sync
+ * (since 0) returns them. Enabled by setting {@code expense.migration.sync-version.enabled=true} and safe to run more than once
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "expense.migration.sync-version.enabled", havingValue = "true")
+public class ExpenseSyncVersionMigration implements ApplicationRunner {
+
+	private final MongoTemplate mongoTemplate;
+	private final ExpenseVersionService versionService;
+
+	@Value("${expense.migration.sync-version.batch-size:1000}")
+	private int batchSize;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		long migrated = migrate();
+		log.info("Stamped a sync version on {} expenses", migrated);
+	}
+
+	/**
+	 * Stamps every expense without a sync version in unordered batches, allocating the versions of each user's
+	 * expenses in the batch at once
+	 * @return {@code long} the number of expenses that were stamped
+	 */
+	public long migrate() {
+		MongoCollection<Document> expenses = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Expense.class));
+		Bson pending = Filters.and(Filters.exists("syncVersion", false), Filters.ne("userId", null));
+		long migrated = 0;
+		List<Document> batch;
+		do {
+			batch = expenses.find(pending).projection(Projections.include("userId")).limit(batchSize).into(new ArrayList<>());
+			if(batch.isEmpty())
+				break;
+			Map<String, List<Document>> byUser = new LinkedHashMap<>();
+			batch.forEach(expense -> byUser.computeIfAbsent(expense.getString("userId"), userId -> new ArrayList<>()).add(expense));
+			List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+			List<ExpenseVersionService.SyncVersions> allocated = new ArrayList<>(byUser.size());
+			Date now = new Date();
+			try {
+				byUser.forEach((userId, userExpenses) -> {
+					ExpenseVersionService.SyncVersions syncVersions = versionService.allocateSyncVersions(userId, userExpenses.size());
+					allocated.add(syncVersions);
+					long syncVersion = syncVersions.first();
+					for(Document expense : userExpenses) {
+						// setting syncVersion moves each document out of the pending filter so the next batch starts where this one ended
+						updates.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", expense.get("_id")), Filters.exists("syncVersion", false)),
+								Updates.combine(Updates.set("syncVersion", syncVersion++), Updates.set("modifiedAt", now))));
+					}
+				});
+				expenses.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+			} finally {
+				allocated.forEach(versionService::releaseSyncVersions);
+			}
+			migrated += batch.size();
+			log.debug("Stamped {} expenses so far", migrated);
+		} while(batch.size() == batchSize);
+		return migrated;
+	}
+}
@@ -0,0 +1,94 @@
+package com.adk.expensetracker.migration;
+
+import com.adk.expensetracker.model.Expense;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-shot job that rewrites expenses stored with a {@code user} DBRef so they store the plain {@code userId} instead.
+ * Enabled by setting {@code expense.migration.user-reference.enabled=true} and safe to run more than once
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "expense.migration.user-reference.enabled", havingValue = "true")
+public class ExpenseUserReferenceMigration implements ApplicationRunner {
+
+	private static final List<String> LEGACY_INDEXES = List.of("user_date", "user_category_date");
+
+	private final MongoTemplate mongoTemplate;
+
+	@Value("${expense.migration.user-reference.batch-size:1000}")
+	private int batchSize;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		long migrated = migrate();
+		log.info("Migrated {} expenses from a user DBRef to a userId", migrated);
+	}
+
+	/**
+	 * Rewrites every expense that still has a {@code user} DBRef in unordered batches and drops the indexes built on it
+	 * @return {@code long} the number of expenses that were rewritten
+	 */
+	public long migrate() {
+		MongoCollection<Document> expenses = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Expense.class));
+		Bson pending = Filters.exists("user");
+		long migrated = 0;
+		List<Document> batch;
+		do {
+			batch = expenses.find(pending).projection(Projections.include("user")).limit(batchSize).into(new ArrayList<>());
+			if(batch.isEmpty())
+				break;
+			List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+			// unsetting user moves each document out of the pending filter so the next batch starts where this one ended
+			batch.forEach(expense -> updates.add(new UpdateOneModel<>(Filters.eq("_id", expense.get("_id")),
+					Updates.combine(Updates.set("userId", referencedUserId(expense.get("user"))), Updates.unset("user")))));
+			expenses.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+			migrated += batch.size();
+			log.debug("Migrated {} expenses so far", migrated);
+		} while(batch.size() == batchSize);
+
+		for(Document index : expenses.listIndexes()) {
+			if(LEGACY_INDEXES.contains(index.getString("name")))
+				expenses.dropIndex(index.getString("name"));
+		}
+		return migrated;
+	}
+
+	/**
+	 * Reads the referenced user id out of a stored DBRef
+	 * @param user {@link Object} the stored user reference, decoded either as a {@link DBRef} or a plain {@link Document}
+	 * @return {@link String} the hex string id of the user, {@code null} if the reference is malformed
+	 */
+	private static String referencedUserId(Object user) {
+		Object id = null;
+		if(user instanceof DBRef dbRef)
+			id = dbRef.getId();
+		else if(user instanceof Document document)
+			id = document.get("$id");
+		return id == null ? null : id.toString();
+	}
+}
@@ -1,6 +1,7 @@
 package com.adk.expensetracker.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
@@ -14,6 +15,7 @@ public class Category {
 	
 	@Id
 	private String id;
+	@Indexed(unique = true)
 	private String name;
 	
 }
@@ -0,0 +1,24 @@
+package com.adk.expensetracker.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Database object containing the change stream resume token up to which every change was delivered to the event
+ * listeners, so a restarted instance resumes where it stopped instead of missing or replaying changes
+ */
+@Data
+@Document
+public class EventCheckpoint {
+
+	// the name of the change stream consumer, see expense.events.checkpoint-id
+	@Id
+	private String id;
+	// the _data field of the resume token
+	private String resumeToken;
+	private Instant savedAt;
+}
@@ -2,20 +2,36 @@ package com.adk.expensetracker.model;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
-import org.springframework.data.mongodb.core.mapping.DocumentReference;
+import org.springframework.data.mongodb.core.mapping.Field;
 import com.adk.expensetracker.errorhandling.FieldBlankException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * Database object containing information about an Expense
  */
 @Data
 @Document
+@CompoundIndexes({
+	// backs the user lookups, date range queries and the keyset pagination sort
+	@CompoundIndex(name = "userId_date", def = "{ 'userId': 1, 'date': -1, '_id': -1 }"),
+	@CompoundIndex(name = "userId_category_date", def = "{ 'userId': 1, 'category': 1, 'date': -1 }"),
+	// backs the delta sync of the changes after a sync version
+	@CompoundIndex(name = "userId_syncVersion", def = "{ 'userId': 1, 'syncVersion': 1 }")
+})
 public class Expense {
+
+	// days tombstones are kept before their TTL index removes them
+	public static final int TOMBSTONE_RETENTION_DAYS = 90;
 	
 	@Id
 	private String id;
@@ -23,10 +39,35 @@ public class Expense {
 	private String fullDescription;
 	private Double amount;
 	private LocalDateTime date;
-	@DocumentReference(lookup = "{ 'name' : ?#{#target} }")
+	// stored as the category name and resolved through the category cache, see ExpenseCategoryCallback
+	@Transient
 	private Category category;
-	@DBRef
-	private User user;
+	@JsonIgnore
+	@Field("category")
+	private String categoryName;
+	private String userId;
+	// per user sequence assigned on every write, clients sync the changes after the highest version they have seen
+	@JsonIgnore
+	private Long syncVersion;
+	@JsonIgnore
+	private LocalDateTime modifiedAt;
+	// deleted expenses are kept as tombstones so syncing clients learn about the deletion
+	@JsonIgnore
+	private boolean deleted;
+	// tombstones are removed once they are older than the retention, clients that haven't synced for longer must resync
+	@JsonIgnore
+	@Indexed(expireAfter = TOMBSTONE_RETENTION_DAYS + "d")
+	private LocalDateTime deletedAt;
+
+	/**
+	 * Accepts the legacy {"user": {"id": ...}} request body shape that existed before expenses stored the user id directly
+	 * @param user {@link Map} containing the id of the user
+	 */
+	@JsonProperty("user")
+	private void setUserReference(Map<String, String> user) {
+		if(user != null)
+			userId = user.get("id");
+	}
 	
 	public void checkRequiredFields() {
 		if( shortDescription == null || shortDescription.isBlank())
@@ -37,9 +78,7 @@ public class Expense {
 			throw new FieldBlankException(Expense.class, "amount", Double.class.toGenericString());
 		if( date == null)
 			throw new FieldBlankException(Expense.class, "date", LocalDate.class.toGenericString());
-		if( user == null)
-			throw new FieldBlankException(Expense.class, "User", User.class.toGenericString());
-		if( user.getId() == null || user.getId().isBlank())
-			throw new FieldBlankException(Expense.class, "user.id", String.class.toGenericString());
+		if( userId == null || userId.isBlank())
+			throw new FieldBlankException(Expense.class, "userId", String.class.toGenericString());
 	}
 }
@@ -0,0 +1,59 @@
+package com.adk.expensetracker.model;
+
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Database object containing the total spent by a user in a single category during a day or month.
+ * Maintained incrementally as expenses are written so totals and trends never have to scan a user's expenses
+ */
+@Data
+@Document
+@CompoundIndex(name = "userId_granularity_bucket", def = "{ 'userId': 1, 'granularity': 1, 'bucket': 1 }")
+public class ExpenseRollup {
+
+	// userId:granularity:bucket:category so every change to the same rollup upserts the same document
+	@Id
+	private String id;
+	private String userId;
+	private String category;
+	private Granularity granularity;
+	// first day of the day or month, in the system time zone like the expense dates
+	private LocalDate bucket;
+	private Double total;
+	private Long count;
+
+	/**
+	 * Size of the period a rollup covers
+	 */
+	public enum Granularity {
+		DAY,
+		MONTH;
+
+		/**
+		 * Retrieves the bucket a date falls into
+		 * @param date {@link LocalDate} the date
+		 * @return {@link LocalDate} the first day of the period containing the date
+		 */
+		public LocalDate bucketOf(LocalDate date) {
+			return this == DAY ? date : date.withDayOfMonth(1);
+		}
+	}
+
+	/**
+	 * Builds the id of a rollup
+	 * @param userId {@link String} the id of the user
+	 * @param granularity {@link Granularity} the size of the period
+	 * @param bucket {@link LocalDate} the first day of the period
+	 * @param category {@link String} the name of the category
+	 * @return {@link String} the id of the rollup
+	 */
+	public static String idOf(String userId, Granularity granularity, LocalDate bucket, String category) {
+		return userId + ":" + granularity + ":" + bucket + ":" + category;
+	}
+}
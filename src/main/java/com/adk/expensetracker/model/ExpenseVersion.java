@@ -0,0 +1,49 @@
+package com.adk.expensetracker.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Database object containing the change version of a user's expenses, incremented by every write to them.
+ * Backs the ETag and Last-Modified headers of the expense read endpoints and hands out the sync versions of expense writes
+ */
+@Data
+@Document
+public class ExpenseVersion {
+
+	// the id of the user the version belongs to
+	@Id
+	private String userId;
+	private Long version;
+	private Instant modifiedAt;
+	// last sync version handed out to an expense write, allocated before the write unlike the version bumped after it
+	private Long sequence;
+	// sync versions handed out to writes that haven't finished yet, changes are only served up to the first of them
+	private List<PendingSyncVersions> pending;
+	// the sequence at roughly daily intervals, tells how far the tombstones removed by their TTL may reach
+	private List<SequenceMark> marks;
+
+	/**
+	 * Sync versions allocated to a write that is still running
+	 */
+	@Data
+	public static class PendingSyncVersions {
+		private String token;
+		private Long first;
+		private Instant at;
+	}
+
+	/**
+	 * The sequence of a user's expenses before the first allocation after a mark at least a day older
+	 */
+	@Data
+	public static class SequenceMark {
+		private Instant at;
+		private Long sequence;
+	}
+}
@@ -1,6 +1,7 @@
 package com.adk.expensetracker.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
@@ -14,5 +15,6 @@ public class Role {
 	
 	@Id
 	private String id;
+	@Indexed(unique = true)
 	private String value;
 }
@@ -1,5 +1,7 @@
 package com.adk.expensetracker.repo;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -17,4 +19,11 @@ public interface CategoryRepo extends MongoRepository<Category, String>{
 	 * @return {@link Optional} of {@link Category} of the category where the name is equal to the passed in value
 	 */
 	Optional<Category> findByName(String name);
+
+	/**
+	 * Finds every category with one of the given names in a single query
+	 * @param names {@link Collection} of {@link String} the names of the categories
+	 * @return {@link List} of {@link Category} the categories that exist
+	 */
+	List<Category> findByNameIn(Collection<String> names);
 }
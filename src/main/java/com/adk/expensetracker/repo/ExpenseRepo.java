@@ -2,9 +2,14 @@ package com.adk.expensetracker.repo;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
 import com.adk.expensetracker.model.Expense;
 import org.springframework.data.mongodb.repository.Query;
 
@@ -14,29 +19,117 @@ import org.springframework.data.mongodb.repository.Query;
 public interface ExpenseRepo extends MongoRepository<Expense, String> {
 
 	/**
-	 * Finds a list of expenses by its user id
+	 * Finds a list of expenses by its user id, read straight into a DTO (only the DTO's fields are fetched)
 	 * @param userId {@link String} the id of the user who owns the expense
-	 * @return {@link List} of {@link Expense} where the user id is equal to the passed in value
+	 * @param type {@link Class} of the DTO the expenses are read into
+	 * @return {@link List} of the DTO where the user id is equal to the passed in value
 	 */
-	List<Expense> findByUserId(String userId);
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true } }")
+	<T> List<T> findByUserId(String userId, Class<T> type);
 
 	/**
-	 * Finds a list of expenses by its User's id and its category
+	 * Finds a user's expenses, including deleted ones, written after a sync version ordered by sync version (oldest first)
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param syncVersion {@code long} the last sync version the client has seen
+	 * @param committed {@code long} the highest sync version returned, every version up to it is committed
+	 * @param pageable {@link Pageable} the maximum number of changes
+	 * @return {@link List} of {@link Expense} containing at most the page size of changed or deleted expenses
+	 */
+	@Query(value = "{ 'userId': ?0, 'syncVersion': { $gt: ?1, $lte: ?2 } }", sort = "{ 'syncVersion': 1 }")
+	List<Expense> findChangesByUserId(String userId, long syncVersion, long committed, Pageable pageable);
+
+	/**
+	 * Finds a list of expenses by its User's id and its category, read straight into a DTO (only the DTO's fields are fetched)
 	 * @param userId {@link String} the user id associated with an expense
 	 * @param categoryName {@link String} the category name associated with an expense
-	 * @return {@link List} of {@link Expense} where the user id  and category is equal to the passed in values
+	 * @param type {@link Class} of the DTO the expenses are read into
+	 * @return {@link List} of the DTO where the user id  and category is equal to the passed in values
 	 */
-	@Query(value = "{ 'user.id': ?0,  'category' : ?1 }")
-	List<Expense> findByUserIdAndCategoryName(String userId, String categoryName);
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true }, 'category' : ?1 }")
+	<T> List<T> findByUserIdAndCategoryName(String userId, String categoryName, Class<T> type);
 
 	/**
-	 * Finds a list of expenses by its User's id and date is in between a start and end date
+	 * Finds a list of expenses by its User's id and date is in between a start and end date, read straight into a DTO
+	 * (only the DTO's fields are fetched)
 	 * @param userId {@link String} the user id associated with the expenses
 	 * @param startDate {@link LocalDateTime} the date used to signify the start of the dates for expenses
 	 * @param endDate {@link LocalDateTime} the date used to signify the end of the dates for expenses
-	 * @return {@link List} of {@link Expense} where the user Id  is equal to the passed in value and date is
+	 * @param type {@link Class} of the DTO the expenses are read into
+	 * @return {@link List} of the DTO where the user Id  is equal to the passed in value and date is
 	 * 			between the passed in dates
 	 */
-	@Query(value = "{ 'user.id': ?0,  'date' : { $gt :  ?1, $lt : ?2} }")
-	List<Expense> findByUserIdAndBetweenTwoDates(String userId, LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true }, 'date' : { $gt :  ?1, $lt : ?2} }")
+	<T> List<T> findByUserIdAndBetweenTwoDates(String userId, LocalDateTime startDate, LocalDateTime endDate, Class<T> type);
+
+	/**
+	 * Finds the first page of a user's expenses ordered by date then id (newest first)
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param pageable {@link Pageable} the size of the page
+	 * @return {@link List} of {@link Expense} containing at most the page size of the user's newest expenses
+	 */
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true } }", sort = "{ 'date': -1, '_id': -1 }")
+	List<Expense> findPageByUserId(String userId, Pageable pageable);
+
+	/**
+	 * Finds the next page of a user's expenses that come after a keyset position when ordered by date then id (newest first)
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param date {@link LocalDateTime} the date of the last expense on the previous page
+	 * @param id {@link ObjectId} the id of the last expense on the previous page
+	 * @param pageable {@link Pageable} the size of the page
+	 * @return {@link List} of {@link Expense} containing at most the page size of expenses after the keyset position
+	 */
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true }, $or: [ { 'date' : { $lt : ?1 } }, { 'date' : ?1, '_id' : { $lt : ?2 } } ] }", sort = "{ 'date': -1, '_id': -1 }")
+	List<Expense> findPageByUserIdAfter(String userId, LocalDateTime date, ObjectId id, Pageable pageable);
+
+	/**
+	 * Streams all of a user's expenses from a database cursor ordered by date then id (newest first).
+	 * The returned stream must be closed once consumed
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @return {@link Stream} of {@link Expense} where the user id is equal to the passed in value
+	 */
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true } }", sort = "{ 'date': -1, '_id': -1 }")
+	Stream<Expense> streamByUserId(String userId);
+
+	/**
+	 * Aggregates a user's spending per category for expenses dated within a range
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @return {@link List} of {@link SpendingSummaryDTO} keyed by category name
+	 */
+	@Aggregation(pipeline = {
+			"{ $match: { 'userId': ?0, 'deleted': { $ne: true }, 'date': { $gte: ?1, $lt: ?2 } } }",
+			"{ $group: { _id: '$category', total: { $sum: '$amount' }, count: { $sum: 1 }, min: { $min: '$amount' }, max: { $max: '$amount' }, average: { $avg: '$amount' } } }",
+			"{ $project: { _id: 0, key: { $ifNull: [ '$_id', 'Uncategorized' ] }, total: 1, count: 1, min: 1, max: 1, average: 1 } }",
+			"{ $sort: { key: 1 } }" })
+	List<SpendingSummaryDTO> summarizeByCategory(String userId, LocalDateTime startDate, LocalDateTime endDate);
+
+	/**
+	 * Aggregates a user's spending per day, week or month for expenses dated within a range
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @param unit {@link String} the $dateTrunc unit (day, week or month)
+	 * @param timezone {@link String} the time zone the periods are calculated in
+	 * @return {@link List} of {@link SpendingSummaryDTO} keyed by the first day of the period (yyyy-MM-dd)
+	 */
+	@Aggregation(pipeline = {
+			"{ $match: { 'userId': ?0, 'deleted': { $ne: true }, 'date': { $gte: ?1, $lt: ?2 } } }",
+			"{ $group: { _id: { $dateTrunc: { date: '$date', unit: ?3, timezone: ?4 } }, total: { $sum: '$amount' }, count: { $sum: 1 }, min: { $min: '$amount' }, max: { $max: '$amount' }, average: { $avg: '$amount' } } }",
+			"{ $project: { _id: 0, key: { $dateToString: { format: '%Y-%m-%d', date: '$_id', timezone: ?4 } }, total: 1, count: 1, min: 1, max: 1, average: 1 } }",
+			"{ $sort: { key: 1 } }" })
+	List<SpendingSummaryDTO> summarizeByPeriod(String userId, LocalDateTime startDate, LocalDateTime endDate, String unit, String timezone);
+
+	/**
+	 * Aggregates spending per user for expenses dated within a range
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @return {@link List} of {@link SpendingSummaryDTO} keyed by user id
+	 */
+	@Aggregation(pipeline = {
+			"{ $match: { 'deleted': { $ne: true }, 'date': { $gte: ?0, $lt: ?1 } } }",
+			"{ $group: { _id: '$userId', total: { $sum: '$amount' }, count: { $sum: 1 }, min: { $min: '$amount' }, max: { $max: '$amount' }, average: { $avg: '$amount' } } }",
+			"{ $project: { _id: 0, key: '$_id', total: 1, count: 1, min: 1, max: 1, average: 1 } }",
+			"{ $sort: { total: -1 } }" })
+	List<SpendingSummaryDTO> summarizeByUser(LocalDateTime startDate, LocalDateTime endDate);
+}
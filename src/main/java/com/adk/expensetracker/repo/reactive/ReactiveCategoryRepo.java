@@ -0,0 +1,20 @@
+package com.adk.expensetracker.repo.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.adk.expensetracker.model.Category;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive MongoDB repository holding Expense Categories
+ */
+public interface ReactiveCategoryRepo extends ReactiveMongoRepository<Category, String> {
+
+	/**
+	 * Finds a category by its name
+	 * @param name {@link String} the name of the category
+	 * @return {@link Mono} of {@link Category} of the category where the name is equal to the passed in value
+	 */
+	Mono<Category> findByName(String name);
+}
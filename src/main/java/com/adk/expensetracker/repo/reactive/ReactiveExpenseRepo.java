@@ -0,0 +1,112 @@
+package com.adk.expensetracker.repo.reactive;
+
+import java.time.LocalDateTime;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.model.Expense;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive MongoDB repository holding Expenses, mirrors the queries of {@link com.adk.expensetracker.repo.ExpenseRepo}
+ * so both stacks are served by the same indexes
+ */
+public interface ReactiveExpenseRepo extends ReactiveMongoRepository<Expense, String> {
+
+	/**
+	 * Finds a user's expenses ordered by date then id (newest first)
+	 * @param userId {@link String} the id of the user who owns the expense
+	 * @return {@link Flux} of {@link Expense} where the user id is equal to the passed in value
+	 */
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true } }", sort = "{ 'date': -1, '_id': -1 }")
+	Flux<Expense> findByUserId(String userId);
+
+	/**
+	 * Finds expenses by its User's id and its category
+	 * @param userId {@link String} the user id associated with an expense
+	 * @param categoryName {@link String} the category name associated with an expense
+	 * @return {@link Flux} of {@link Expense} where the user id  and category is equal to the passed in values
+	 */
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true }, 'category' : ?1 }")
+	Flux<Expense> findByUserIdAndCategoryName(String userId, String categoryName);
+
+	/**
+	 * Finds expenses by its User's id and date is in between a start and end date
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param startDate {@link LocalDateTime} the date used to signify the start of the dates for expenses
+	 * @param endDate {@link LocalDateTime} the date used to signify the end of the dates for expenses
+	 * @return {@link Flux} of {@link Expense} where the user Id  is equal to the passed in value and date is
+	 * 			between the passed in dates
+	 */
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true }, 'date' : { $gt :  ?1, $lt : ?2} }")
+	Flux<Expense> findByUserIdAndBetweenTwoDates(String userId, LocalDateTime startDate, LocalDateTime endDate);
+
+	/**
+	 * Finds the first page of a user's expenses ordered by date then id (newest first)
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param pageable {@link Pageable} the size of the page
+	 * @return {@link Flux} of {@link Expense} containing at most the page size of the user's newest expenses
+	 */
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true } }", sort = "{ 'date': -1, '_id': -1 }")
+	Flux<Expense> findPageByUserId(String userId, Pageable pageable);
+
+	/**
+	 * Finds the next page of a user's expenses that come after a keyset position when ordered by date then id (newest first)
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param date {@link LocalDateTime} the date of the last expense on the previous page
+	 * @param id {@link ObjectId} the id of the last expense on the previous page
+	 * @param pageable {@link Pageable} the size of the page
+	 * @return {@link Flux} of {@link Expense} containing at most the page size of expenses after the keyset position
+	 */
+	@Query(value = "{ 'userId': ?0, 'deleted': { $ne: true }, $or: [ { 'date' : { $lt : ?1 } }, { 'date' : ?1, '_id' : { $lt : ?2 } } ] }", sort = "{ 'date': -1, '_id': -1 }")
+	Flux<Expense> findPageByUserIdAfter(String userId, LocalDateTime date, ObjectId id, Pageable pageable);
+
+	/**
+	 * Aggregates a user's spending per category for expenses dated within a range
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} keyed by category name
+	 */
+	@Aggregation(pipeline = {
+			"{ $match: { 'userId': ?0, 'deleted': { $ne: true }, 'date': { $gte: ?1, $lt: ?2 } } }",
+			"{ $group: { _id: '$category', total: { $sum: '$amount' }, count: { $sum: 1 }, min: { $min: '$amount' }, max: { $max: '$amount' }, average: { $avg: '$amount' } } }",
+			"{ $project: { _id: 0, key: { $ifNull: [ '$_id', 'Uncategorized' ] }, total: 1, count: 1, min: 1, max: 1, average: 1 } }",
+			"{ $sort: { key: 1 } }" })
+	Flux<SpendingSummaryDTO> summarizeByCategory(String userId, LocalDateTime startDate, LocalDateTime endDate);
+
+	/**
+	 * Aggregates a user's spending per day, week or month for expenses dated within a range
+	 * @param userId {@link String} the user id associated with the expenses
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @param unit {@link String} the $dateTrunc unit (day, week or month)
+	 * @param timezone {@link String} the time zone the periods are calculated in
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} keyed by the first day of the period (yyyy-MM-dd)
+	 */
+	@Aggregation(pipeline = {
+			"{ $match: { 'userId': ?0, 'deleted': { $ne: true }, 'date': { $gte: ?1, $lt: ?2 } } }",
+			"{ $group: { _id: { $dateTrunc: { date: '$date', unit: ?3, timezone: ?4 } }, total: { $sum: '$amount' }, count: { $sum: 1 }, min: { $min: '$amount' }, max: { $max: '$amount' }, average: { $avg: '$amount' } } }",
+			"{ $project: { _id: 0, key: { $dateToString: { format: '%Y-%m-%d', date: '$_id', timezone: ?4 } }, total: 1, count: 1, min: 1, max: 1, average: 1 } }",
+			"{ $sort: { key: 1 } }" })
+	Flux<SpendingSummaryDTO> summarizeByPeriod(String userId, LocalDateTime startDate, LocalDateTime endDate, String unit, String timezone);
+
+	/**
+	 * Aggregates spending per user for expenses dated within a range
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} keyed by user id
+	 */
+	@Aggregation(pipeline = {
+			"{ $match: { 'deleted': { $ne: true }, 'date': { $gte: ?0, $lt: ?1 } } }",
+			"{ $group: { _id: '$userId', total: { $sum: '$amount' }, count: { $sum: 1 }, min: { $min: '$amount' }, max: { $max: '$amount' }, average: { $avg: '$amount' } } }",
+			"{ $project: { _id: 0, key: '$_id', total: 1, count: 1, min: 1, max: 1, average: 1 } }",
+			"{ $sort: { total: -1 } }" })
+	Flux<SpendingSummaryDTO> summarizeByUser(LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,21 @@
+package com.adk.expensetracker.repo.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.adk.expensetracker.model.User;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive MongoDB repository holding Users. The reactive driver can't resolve the {@code roles} DBRefs,
+ * so it's only used for checks that don't load a user, users themselves are read through {@link com.adk.expensetracker.repo.UserRepo}
+ */
+public interface ReactiveUserRepo extends ReactiveMongoRepository<User, String> {
+
+	/**
+	 * Checks if a user exists with a username
+	 * @param username {@link String} the username of the user
+	 * @return {@link Mono} of {@link Boolean} {@code true} if a user has the username
+	 */
+	Mono<Boolean> existsByUsername(String username);
+}
@@ -0,0 +1,40 @@
+package com.adk.expensetracker.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * {@link User} that also carries the id of the user, so requests authenticated as a user can prove that user exists
+ * without reading it again
+ */
+public class AuthenticatedUser extends User {
+
+    private final String userId;
+
+    /**
+     * @param userId {@link String} id of the user, {@code null} if unknown e.g. for tokens issued without it
+     * @param username {@link String} the username of the user
+     * @param password {@link String} the encoded password of the user
+     * @param authorities {@link Collection} of {@link GrantedAuthority} of the user
+     */
+    public AuthenticatedUser(String userId, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+    }
+
+    /**
+     * @return {@link String} id of the user, {@code null} if unknown
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return {@link AuthenticatedUser} a copy whose credentials can be erased without affecting this user
+     */
+    public AuthenticatedUser copy() {
+        return new AuthenticatedUser(userId, getUsername(), getPassword(), getAuthorities());
+    }
+}
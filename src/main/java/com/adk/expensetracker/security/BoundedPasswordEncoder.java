@@ -0,0 +1,104 @@
+package com.adk.expensetracker.security;
+
+import com.adk.expensetracker.errorhandling.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link PasswordEncoder} that hashes and verifies passwords on a fixed size pool with a bounded queue, so a burst of
+ * logins and registrations occupies at most that many cores instead of every request thread. Once the queue is full,
+ * or a queued password waits longer than the timeout, a {@link PasswordHashingOverloadedException} is thrown straight away.
+ * The timeout only bounds the wait for a thread: a hash can't be interrupted, so one that already started is waited for
+ * rather than abandoned while it keeps its thread busy
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hash-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "security.password.hash", Tags.empty()).bindTo(meterRegistry);
+        this.rejected = Counter.builder("security.password.hash.rejected")
+                .description("Password hashes and verifications rejected because the hashing pool was overloaded")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Runs a hash or verification on the pool and waits for its result
+     * @param task {@link Callable} the hash or verification
+     * @return the result of the task
+     * @throws PasswordHashingOverloadedException if the queue is full or the task is still queued once the timeout passes
+     */
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingOverloadedException();
+        }
+        try {
+            try {
+                return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // only a task still in the queue can be cancelled, a running hash ignores interrupts and finishes anyway
+                if (future.cancel(false)) {
+                    rejected.increment();
+                    throw new PasswordHashingOverloadedException();
+                }
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingOverloadedException();
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
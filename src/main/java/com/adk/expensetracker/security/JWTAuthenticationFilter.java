@@ -2,12 +2,14 @@ package com.adk.expensetracker.security;
 
 import com.adk.expensetracker.service.CustomUserDetailsService;
 import com.mongodb.lang.NonNullApi;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +17,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Authenticates a user based on JWT tokens
@@ -33,9 +36,10 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String token = getJWTFromRequest(request);
-        if(StringUtils.hasText(token) && jwtGenerator.validateToken(token)) {
-            String username = jwtGenerator.getUsernameFromJWT(token);
-            UserDetails userDetails = userService.loadUserByUsername(username);
+        if(StringUtils.hasText(token)) {
+            // verifies the token and reads its claims in one parse
+            Claims claims = jwtGenerator.getClaimsFromJWT(token);
+            UserDetails userDetails = loadUserDetails(claims);
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails,
                     null, userDetails.getAuthorities());
             authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -44,6 +48,19 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Loads the user a token belongs to, straight from the token's claims when it carries roles and from the
+     * (cached) user details service otherwise
+     * @param claims {@link Claims} the claims of a validated jwt
+     * @return {@link UserDetails} of the user the token was issued to
+     */
+    private UserDetails loadUserDetails(Claims claims){
+        List<String> roles = jwtGenerator.getRolesFromClaims(claims);
+        if(roles == null)
+            return userService.loadUserByUsername(claims.getSubject());
+        return new AuthenticatedUser(jwtGenerator.getUserIdFromClaims(claims), claims.getSubject(), "", AuthorityUtils.createAuthorityList(roles));
+    }
+
     /**
      * Retrieves the JWT for a {@link HttpServletRequest}
      * @param request {@link HttpServletRequest} the request containing the jwt
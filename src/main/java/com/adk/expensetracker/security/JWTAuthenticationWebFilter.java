@@ -0,0 +1,95 @@
+package com.adk.expensetracker.security;
+
+import com.adk.expensetracker.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reactive counterpart of {@link JWTAuthenticationFilter}, authenticates a user based on JWT tokens
+ */
+public class JWTAuthenticationWebFilter implements WebFilter {
+
+    private final JWTGenerator jwtGenerator;
+    private final CustomUserDetailsService userService;
+
+    public JWTAuthenticationWebFilter(JWTGenerator jwtGenerator, CustomUserDetailsService userService) {
+        this.jwtGenerator = jwtGenerator;
+        this.userService = userService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String token = getJWTFromRequest(exchange.getRequest());
+        if(!StringUtils.hasText(token))
+            return chain.filter(exchange);
+        return authenticate(token)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> authentication.isPresent()
+                        ? chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication.get()))
+                        : unauthorized(exchange));
+    }
+
+    /**
+     * Verifies a token and builds the authentication of the user it was issued to
+     * @param token {@link String} the jwt token
+     * @return {@link Mono} of {@link Authentication} of the user, empty if the token is invalid or the user no longer exists
+     */
+    private Mono<Authentication> authenticate(String token) {
+        return Mono.fromCallable(() -> jwtGenerator.getClaimsFromJWT(token))
+                .flatMap(this::loadUserDetails)
+                .<Authentication>map(userDetails -> new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()))
+                .onErrorResume(AuthenticationException.class, ex -> Mono.empty());
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+
+    /**
+     * Loads the user a token belongs to, straight from the token's claims when it carries roles and from the
+     * (cached) user details service otherwise. The user details service can block so it never runs on the event loop
+     * @param claims {@link Claims} the claims of a validated jwt
+     * @return {@link Mono} of {@link UserDetails} of the user the token was issued to
+     */
+    private Mono<UserDetails> loadUserDetails(Claims claims){
+        List<String> roles = jwtGenerator.getRolesFromClaims(claims);
+        if(roles != null)
+            return Mono.just(new AuthenticatedUser(jwtGenerator.getUserIdFromClaims(claims), claims.getSubject(), "", AuthorityUtils.createAuthorityList(roles)));
+        return Mono.fromCallable(() -> userService.loadUserByUsername(claims.getSubject()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Retrieves the JWT for a {@link ServerHttpRequest}
+     * @param request {@link ServerHttpRequest} the request containing the jwt
+     * @return {@link String} the jwt bearer token if present, {@code null} otherwise
+     */
+    private String getJWTFromRequest(ServerHttpRequest request){
+        String bearerToken = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if(StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer "))
+            return bearerToken.substring(7);
+        return null;
+    }
+}
@@ -1,14 +1,29 @@
 package com.adk.expensetracker.security;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.security.Key;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 /**
@@ -19,6 +34,50 @@ public class JWTGenerator {
 
     private static final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
     public final long JWT_EXPIRATION = 3600000;
+    public static final String ROLES_CLAIM = "roles";
+    public static final String USER_ID_CLAIM = "uid";
+
+    // parsers are immutable and thread-safe so a single one is shared by every request
+    private final JwtParser jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+    // claims of recently verified tokens keyed by the token's digest, each kept until the token expires
+    private final Cache<String, Claims> verifiedTokens;
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    /**
+     * When enabled tokens carry the user's roles so they can be authenticated without reading the user.
+     * Role changes and deleted users are then only picked up once the token expires
+     */
+    @Value("${security.jwt.roles-in-claims:false}")
+    private boolean rolesInClaims;
+
+    public JWTGenerator(@Value("${security.jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize, MeterRegistry meterRegistry) {
+        this.cachedTimer = validationTimer("cached", meterRegistry);
+        this.verifiedTimer = validationTimer("verified", meterRegistry);
+        this.rejectedTimer = validationTimer("rejected", meterRegistry);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long remainingMillis = expiration == null ? JWT_EXPIRATION : expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     /**
      * Generates a JWT token
@@ -30,15 +89,65 @@ public class JWTGenerator {
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + JWT_EXPIRATION);
 
-        String token = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt( new Date())
-                .setExpiration(expireDate)
+                .setExpiration(expireDate);
+        // lets requests for the user's own data skip checking the user exists
+        if(authentication.getPrincipal() instanceof AuthenticatedUser user && user.getUserId() != null)
+            builder.claim(USER_ID_CLAIM, user.getUserId());
+        if(rolesInClaims)
+            builder.claim(ROLES_CLAIM, authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        return builder
                 .signWith(key,SignatureAlgorithm.HS512)
                 .compact();
-        System.out.println("New token :");
-        System.out.println(token);
-        return token;
+    }
+
+    /**
+     * Verifies a token and retrieves its claims in a single parse. Tokens that were recently verified are served
+     * from a cache until they expire
+     * @param token {@link String} the jwt token
+     * @return {@link Claims} the claims inside the JWT
+     * @throws AuthenticationCredentialsNotFoundException if the token is expired or its signature is incorrect
+     */
+    public Claims getClaimsFromJWT(String token){
+        long start = System.nanoTime();
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if(cached != null && cached.getExpiration() != null && cached.getExpiration().after(new Date())) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(digest, claims);
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (Exception ex) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new AuthenticationCredentialsNotFoundException("JWT was exprired or incorrect",ex.fillInStackTrace());
+        }
+    }
+
+    /**
+     * Retrieves the roles carried by a token's claims
+     * @param claims {@link Claims} the claims inside the JWT
+     * @return {@link List} of {@link String} role names, {@code null} if roles in claims is disabled or the token has none
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getRolesFromClaims(Claims claims){
+        if(!rolesInClaims)
+            return null;
+        return claims.get(ROLES_CLAIM, List.class);
+    }
+
+    /**
+     * Retrieves the id of the user a token was issued to
+     * @param claims {@link Claims} the claims inside the JWT
+     * @return {@link String} the user id, {@code null} if the token was issued without it
+     */
+    public String getUserIdFromClaims(Claims claims){
+        return claims.get(USER_ID_CLAIM, String.class);
     }
 
     /**
@@ -47,12 +156,7 @@ public class JWTGenerator {
      * @return {@link String} the username inside the JWT
      */
     public String getUsernameFromJWT(String token){
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return getClaimsFromJWT(token).getSubject();
     }
 
     /**
@@ -61,15 +165,28 @@ public class JWTGenerator {
      * @return {@code true} if the jwt token is valid, {@code false} otherwise
      */
     public boolean validateToken(String token) {
+        getClaimsFromJWT(token);
+        return true;
+    }
+
+    private static Timer validationTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("security.jwt.validation")
+                .description("Time spent validating JWTs")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Digests a token so the verified token cache never holds the raw bearer tokens
+     * @param token {@link String} the jwt token
+     * @return {@link String} the base64 encoded SHA-256 digest of the token
+     */
+    private static String digest(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (Exception ex) {
-            throw new AuthenticationCredentialsNotFoundException("JWT was exprired or incorrect",ex.fillInStackTrace());
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
         }
     }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.adk.expensetracker.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Password encoding shared by the servlet and reactive security configurations
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+	/**
+	 * BCrypt on a bounded pool, see {@link BoundedPasswordEncoder}. Raising the strength rehashes each stored password
+	 * with it on the user's next successful login
+	 * @param meterRegistry {@link MeterRegistry} the timings, pool and rejections are recorded in
+	 * @param strength {@code int} the BCrypt log rounds
+	 * @param threads {@code int} the number of passwords hashed at once, defaults to the number of processors
+	 * @param queueCapacity {@code int} the number of passwords that may wait for a thread
+	 * @param timeout {@link Duration} how long a password may wait before the request is rejected
+	 * @return {@link PasswordEncoder} the password encoder
+	 */
+	@Bean
+	PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+									@Value("${security.password.bcrypt-strength:10}") int strength,
+									@Value("${security.password.threads:0}") int threads,
+									@Value("${security.password.queue-capacity:64}") int queueCapacity,
+									@Value("${security.password.timeout:2s}") Duration timeout) {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		return new BoundedPasswordEncoder(new TimedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry),
+				poolSize, queueCapacity, timeout, meterRegistry);
+	}
+}
@@ -0,0 +1,89 @@
+package com.adk.expensetracker.security;
+
+import com.adk.expensetracker.service.CustomUserDetailsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static org.springframework.security.config.Customizer.withDefaults;
+
+/**
+ * Security configuration for the application when served by the reactive stack, applies the same rules as {@link SecurityConfig}
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+	/**
+	 * Sets Security configurations
+	 * @param http {@link ServerHttpSecurity} http security configuration
+	 * @param jwtGenerator {@link JWTGenerator} used to verify bearer tokens
+	 * @param userDetailsService {@link CustomUserDetailsService} used to load users whose tokens don't carry roles
+	 * @return {@link SecurityWebFilterChain} containing the user filter chain
+	 */
+	@Bean
+	public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JWTGenerator jwtGenerator, CustomUserDetailsService userDetailsService) {
+		return http
+			.csrf(ServerHttpSecurity.CsrfSpec::disable)
+			.exceptionHandling(exceptionHandlingSpec -> exceptionHandlingSpec
+					.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+			// stateless, every request authenticates with its bearer token
+			.securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+			.authorizeExchange(exchanges -> exchanges
+				.pathMatchers("/user/register", "/user/login", "/api-docs/**", "/swagger-ui/**").permitAll()
+				.pathMatchers("/actuator/health").permitAll()
+				// metrics carry query shapes and latencies, scrapers authenticate as an admin with HTTP basic or a JWT
+				.pathMatchers("/actuator/prometheus").hasAnyAuthority("ADMIN")
+				.pathMatchers("/user/makeAdmin/**", "/expense/createCategory/**", "/expense/summary/user/**", "/expense/rollup/**").hasAnyAuthority("ADMIN")
+				.anyExchange().authenticated())
+			.httpBasic(withDefaults())
+			.addFilterAt(new JWTAuthenticationWebFilter(jwtGenerator, userDetailsService), SecurityWebFiltersOrder.AUTHENTICATION)
+			.build();
+	}
+
+	/**
+	 * Authentication manager used for HTTP basic, users are loaded on a thread that is allowed to block
+	 * @param userDetailsService {@link CustomUserDetailsService} used to load users
+	 * @param passwordEncoder {@link PasswordEncoder} used to verify passwords
+	 * @return {@link ReactiveAuthenticationManager} the authentication manager
+	 */
+	@Bean
+	public ReactiveAuthenticationManager reactiveAuthenticationManager(CustomUserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+		UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(
+				username -> Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username)).subscribeOn(Schedulers.boundedElastic()));
+		authenticationManager.setPasswordEncoder(passwordEncoder);
+		authenticationManager.setUserDetailsPasswordService((user, newPassword) ->
+				Mono.fromCallable(() -> userDetailsService.updatePassword(user, newPassword)).subscribeOn(Schedulers.boundedElastic()));
+		return authenticationManager;
+	}
+
+	/**
+	 * Blocking authentication manager used by the user login endpoint, which runs on the blocking executor
+	 * @param userDetailsService {@link CustomUserDetailsService} used to load users
+	 * @param passwordEncoder {@link PasswordEncoder} used to verify passwords
+	 * @return {@link AuthenticationManager} the authentication manager
+	 */
+	@Bean
+	public AuthenticationManager authenticationManager(CustomUserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+		DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
+		authenticationProvider.setUserDetailsService(userDetailsService);
+		authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+		return new ProviderManager(authenticationProvider);
+	}
+}
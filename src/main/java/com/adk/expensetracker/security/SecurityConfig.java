@@ -1,6 +1,8 @@
 package com.adk.expensetracker.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,28 +11,22 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
 /**
- * Security configuration for the application
+ * Security configuration for the application when served by the servlet stack
  */
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
 	@Autowired
 	private JwtAuthEntryPoint jwtAuthEntryPoint;
 
-	@Bean
-	PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
-	}
-
 	/**
 	 * Sets Security configurations
 	 * @param http {@link HttpSecurity} http security configuration
@@ -46,8 +42,13 @@ public class SecurityConfig {
 			.sessionManagement(httpSecuritySessionManagementConfigurer -> httpSecuritySessionManagementConfigurer
 					.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 			.authorizeHttpRequests((auths) -> auths
+				// async dispatches only happen for streamed responses that were already authorized on the initial request
+				.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 				.requestMatchers("/user/register", "/user/login", "/api-docs/**", "/swagger-ui/**").permitAll()
-				.requestMatchers("/user/makeAdmin/**", "expense/createCategory/**").hasAnyAuthority("ADMIN")
+				.requestMatchers("/actuator/health").permitAll()
+				// metrics carry query shapes and latencies, scrapers authenticate as an admin with HTTP basic or a JWT
+				.requestMatchers("/actuator/prometheus").hasAnyAuthority("ADMIN")
+				.requestMatchers("/user/makeAdmin/**", "expense/createCategory/**", "/expense/summary/user/**", "/expense/rollup/**").hasAnyAuthority("ADMIN")
 				.anyRequest().authenticated())
 		.httpBasic(withDefaults());
 		http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,149 @@
+package com.adk.expensetracker.service;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.repo.CategoryRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Size bounded in-process cache of expense categories keyed by both name and id.
+ * Categories are read on every expense write and every loaded expense but almost never change
+ */
+@Component
+public class CategoryCache {
+
+	private final CategoryRepo categoryRepo;
+	private final Cache<String, Category> categoriesByName;
+	private final Cache<String, Category> categoriesById;
+	// references that resolved to no category, kept briefly so expenses with an unknown or legacy reference don't
+	// cost two reads each every time they are loaded
+	private final Cache<String, Boolean> unresolvedReferences;
+
+	public CategoryCache(CategoryRepo categoryRepo, @Value("${expense.category-cache.max-size:1000}") long maxSize,
+						 @Value("${expense.category-cache.miss-ttl:30s}") Duration missTtl) {
+		this.categoryRepo = categoryRepo;
+		this.categoriesByName = Caffeine.newBuilder().maximumSize(maxSize).build();
+		this.categoriesById = Caffeine.newBuilder().maximumSize(maxSize).build();
+		this.unresolvedReferences = Caffeine.newBuilder().expireAfterWrite(missTtl).maximumSize(maxSize).build();
+	}
+
+	/**
+	 * Finds a category by its name, only reading from the repo if it isn't cached
+	 * @param name {@link String} the name of the category
+	 * @return {@link Optional} of {@link Category} where the name is equal to the passed in value
+	 */
+	public Optional<Category> findByName(String name) {
+		Category cached = categoriesByName.getIfPresent(name);
+		if(cached != null)
+			return Optional.of(cached);
+		Optional<Category> found = categoryRepo.findByName(name);
+		found.ifPresent(this::put);
+		return found;
+	}
+
+	/**
+	 * Finds a category by its name without ever reading from the repo, used where a blocking read isn't allowed
+	 * @param name {@link String} the name of the category
+	 * @return {@link Optional} of {@link Category} if the category is cached
+	 */
+	public Optional<Category> findCachedByName(String name) {
+		return Optional.ofNullable(categoriesByName.getIfPresent(name));
+	}
+
+	/**
+	 * Finds a category by its id without ever reading from the repo, used where a blocking read isn't allowed
+	 * @param id {@link String} the id of the category
+	 * @return {@link Optional} of {@link Category} if the category is cached
+	 */
+	public Optional<Category> findCachedById(String id) {
+		return Optional.ofNullable(categoriesById.getIfPresent(id));
+	}
+
+	/**
+	 * Finds the categories with the given names, reading every category that isn't cached in a single query
+	 * @param names {@link Collection} of {@link String} the names of the categories
+	 * @return {@link Map} of category name to {@link Category} for the categories that exist
+	 */
+	public Map<String, Category> findAllByName(Collection<String> names) {
+		Map<String, Category> found = new HashMap<>(categoriesByName.getAllPresent(names));
+		List<String> missing = names.stream().filter(name -> !found.containsKey(name)).toList();
+		if(!missing.isEmpty()) {
+			for(Category category : categoryRepo.findByNameIn(missing))
+				found.put(category.getName(), put(category));
+		}
+		return found;
+	}
+
+	/**
+	 * Finds a category by its id, only reading from the repo if it isn't cached
+	 * @param id {@link String} the id of the category
+	 * @return {@link Optional} of {@link Category} where the id is equal to the passed in value
+	 */
+	public Optional<Category> findById(String id) {
+		Category cached = categoriesById.getIfPresent(id);
+		if(cached != null)
+			return Optional.of(cached);
+		Optional<Category> found = categoryRepo.findById(id);
+		found.ifPresent(this::put);
+		return found;
+	}
+
+	/**
+	 * Resolves a category reference stored on an expense, falling back to an id lookup for expenses written by the
+	 * previous document reference mapping
+	 * @param reference {@link String} the stored name (or id) of the category
+	 * @return {@link Category} the referenced category, {@code null} if there is no reference or it doesn't exist
+	 */
+	public Category resolveReference(String reference) {
+		if(reference == null || unresolvedReferences.getIfPresent(reference) != null)
+			return null;
+		Category resolved = findByName(reference).or(() -> findById(reference)).orElse(null);
+		if(resolved == null)
+			unresolvedReferences.put(reference, Boolean.TRUE);
+		return resolved;
+	}
+
+	/**
+	 * Adds a saved category to the cache
+	 * @param category {@link Category} the category as stored in the repo
+	 * @return {@link Category} the passed in category
+	 */
+	public Category put(Category category) {
+		categoriesByName.put(category.getName(), category);
+		unresolvedReferences.invalidate(category.getName());
+		if(category.getId() != null) {
+			categoriesById.put(category.getId(), category);
+			unresolvedReferences.invalidate(category.getId());
+		}
+		return category;
+	}
+
+	/**
+	 * Removes a category from the cache so its next lookup reads from the repo
+	 * @param name {@link String} the name of the category
+	 */
+	public void invalidate(String name) {
+		unresolvedReferences.invalidate(name);
+		Category removed = categoriesByName.asMap().remove(name);
+		if(removed != null && removed.getId() != null)
+			categoriesById.invalidate(removed.getId());
+	}
+
+	/**
+	 * Removes every category from the cache
+	 */
+	public void invalidateAll() {
+		categoriesByName.invalidateAll();
+		categoriesById.invalidateAll();
+		unresolvedReferences.invalidateAll();
+	}
+}
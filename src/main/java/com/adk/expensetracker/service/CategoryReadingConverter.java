@@ -0,0 +1,29 @@
+package com.adk.expensetracker.service;
+
+import com.adk.expensetracker.model.Category;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+/**
+ * Resolves the category name stored on an expense from the {@link CategoryCache} when expenses are read straight into
+ * a DTO, the DTO counterpart of {@link ExpenseCategoryCallback}
+ */
+@ReadingConverter
+public class CategoryReadingConverter implements Converter<String, Category> {
+
+	// resolved lazily as the cache depends on a repository that depends on the mongo conversions
+	private final ObjectProvider<CategoryCache> categoryCache;
+
+	public CategoryReadingConverter(ObjectProvider<CategoryCache> categoryCache) {
+		this.categoryCache = categoryCache;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Category convert(String reference) {
+		return categoryCache.getObject().resolveReference(reference);
+	}
+}
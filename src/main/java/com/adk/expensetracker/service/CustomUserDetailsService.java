@@ -3,37 +3,115 @@ package com.adk.expensetracker.service;
 import com.adk.expensetracker.model.Role;
 import com.adk.expensetracker.model.User;
 import com.adk.expensetracker.repo.UserRepo;
+import com.adk.expensetracker.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * User service used to interact with UserDetails and security
  */
 @Component
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     UserRepo userRepo;
 
+    private final Cache<String, AuthenticatedUser> userDetailsCache;
+    // incremented before every eviction so a user read while it ran isn't left cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CustomUserDetailsService(@Value("${security.user-cache.ttl:5m}") Duration ttl,
+                                    @Value("${security.user-cache.max-size:10000}") long maxSize) {
+        this.userDetailsCache = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).build();
+    }
+
     /**
-     * Loads a user by its username
+     * Loads a user by its username, only reading from the repo if the user isn't cached
      * @param username the username identifying the user whose data is required.
      * @return {@link UserDetails} containing user information
      * @throws UsernameNotFoundException if username isn't found
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // read outside of the cache's compute so a virtual thread isn't pinned to its carrier during the Mongo read
+        AuthenticatedUser cached = userDetailsCache.getIfPresent(username);
+        if(cached == null) {
+            long evictionsBefore = evictions.get();
+            cached = readUserDetails(username);
+            userDetailsCache.put(username, cached);
+            // an eviction that ran during the read may have invalidated before the put, so the user read before it is dropped.
+            // An eviction counted after this check invalidates after the put itself
+            if(evictions.get() != evictionsBefore)
+                userDetailsCache.invalidate(username);
+        }
+        // copied so that erasing the credentials of an authenticated principal never touches the cached user
+        return cached.copy();
+    }
+
+    /**
+     * Stores a user's password rehashed after a successful login because the password encoder's strength changed.
+     * The password is left alone if it was changed since the user was loaded
+     * @param user {@link UserDetails} the authenticated user
+     * @param newPassword {@link String} the rehashed password
+     * @return {@link UserDetails} the user with the rehashed password
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepo.findByUsername(user.getUsername())
+                .filter(stored -> stored.getPassword().equals(user.getPassword()))
+                .ifPresent(stored -> {
+                    stored.setPassword(newPassword);
+                    userRepo.save(stored);
+                });
+        evict(user.getUsername());
+        String userId = user instanceof AuthenticatedUser authenticatedUser ? authenticatedUser.getUserId() : null;
+        return new AuthenticatedUser(userId, user.getUsername(), newPassword, user.getAuthorities());
+    }
+
+    /**
+     * Removes a user from the cache so the next authentication reads it from the repo.
+     * Must be called whenever a user's username, password or roles change or the user is deleted
+     * @param username {@link String} the username of the user
+     */
+    public void evict(String username) {
+        if(username == null)
+            return;
+        evictions.incrementAndGet();
+        userDetailsCache.invalidate(username);
+    }
+
+    /**
+     * Removes every user from the cache, used when a user was deleted elsewhere and only its id is known
+     */
+    public void evictAll() {
+        evictions.incrementAndGet();
+        userDetailsCache.invalidateAll();
+    }
+
+    /**
+     * Reads a user from the repo
+     * @param username {@link String} the username of the user
+     * @return {@link AuthenticatedUser} containing user information
+     * @throws UsernameNotFoundException if username isn't found
+     */
+    private AuthenticatedUser readUserDetails(String username) {
         User user = userRepo.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("Username not found"));
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), mapRolesToAuthorities(user.getRoles()));
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), mapRolesToAuthorities(user.getRoles()));
     }
 
     /**
@@ -0,0 +1,41 @@
+package com.adk.expensetracker.service;
+
+import com.adk.expensetracker.model.Expense;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores an expense's category by name and resolves it from the {@link CategoryCache} when expenses are read
+ * so loading a list of expenses never runs a category query per expense
+ */
+@Component
+public class ExpenseCategoryCallback implements BeforeConvertCallback<Expense>, AfterConvertCallback<Expense> {
+
+	// resolved lazily as the cache depends on a repository that depends on these callbacks
+	private final ObjectProvider<CategoryCache> categoryCache;
+
+	public ExpenseCategoryCallback(ObjectProvider<CategoryCache> categoryCache) {
+		this.categoryCache = categoryCache;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Expense onBeforeConvert(Expense expense, String collection) {
+		expense.setCategoryName(expense.getCategory() == null ? null : expense.getCategory().getName());
+		return expense;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Expense onAfterConvert(Expense expense, Document document, String collection) {
+		expense.setCategory(categoryCache.getObject().resolveReference(expense.getCategoryName()));
+		return expense;
+	}
+}
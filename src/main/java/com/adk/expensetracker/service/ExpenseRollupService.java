@@ -0,0 +1,215 @@
+package com.adk.expensetracker.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.ExpenseRollup;
+import com.adk.expensetracker.model.ExpenseRollup.Granularity;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the {@link ExpenseRollup} totals of every user per category and day/month, and answers total and trend
+ * queries from them instead of from the expenses
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseRollupService {
+
+	public static final String UNCATEGORIZED = "Uncategorized";
+
+	private final MongoTemplate mongoTemplate;
+
+	/**
+	 * Adds expenses that were written to their rollups
+	 * @param expenses {@link Collection} of {@link Expense} the written expenses
+	 */
+	public void add(Collection<Expense> expenses) {
+		apply(expenses, 1);
+	}
+
+	/**
+	 * Removes expenses that were deleted, or are about to be replaced, from their rollups
+	 * @param expenses {@link Collection} of {@link Expense} the expenses as they were stored
+	 */
+	public void remove(Collection<Expense> expenses) {
+		apply(expenses, -1);
+	}
+
+	/**
+	 * Applies the amounts of expenses to their day and month rollups in a single unordered bulk write of upserts.
+	 * Rollups whose count drops to zero are deleted
+	 * @param expenses {@link Collection} of {@link Expense} the expenses
+	 * @param sign {@code int} 1 to add the expenses, -1 to remove them
+	 */
+	private void apply(Collection<Expense> expenses, int sign) {
+		Map<String, ExpenseRollup> deltas = new LinkedHashMap<>();
+		expenses.forEach(expense -> accumulate(deltas, expense, sign));
+		if(deltas.isEmpty())
+			return;
+		BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ExpenseRollup.class);
+		for(ExpenseRollup delta : deltas.values()) {
+			bulk.upsert(Query.query(Criteria.where("_id").is(delta.getId())), new Update()
+					.setOnInsert("userId", delta.getUserId())
+					.setOnInsert("category", delta.getCategory())
+					.setOnInsert("granularity", delta.getGranularity())
+					.setOnInsert("bucket", delta.getBucket())
+					.inc("total", delta.getTotal())
+					.inc("count", delta.getCount()));
+		}
+		bulk.execute();
+		if(sign < 0)
+			mongoTemplate.remove(Query.query(Criteria.where("_id").in(deltas.keySet()).and("count").lte(0)), ExpenseRollup.class);
+	}
+
+	/**
+	 * Recomputes every rollup of a user from its expenses, used to backfill and repair rollups.
+	 * Expenses written for the user while it runs may be counted twice or not at all, so run it while the user is idle
+	 * @param userId {@link String} the id of the user
+	 * @return {@code long} the number of expenses the rollups were rebuilt from
+	 */
+	public long rebuild(String userId) {
+		Map<String, ExpenseRollup> rollups = new LinkedHashMap<>();
+		long expenses = 0;
+		Query query = Query.query(Criteria.where("userId").is(userId).and("deleted").ne(true));
+		query.fields().include("userId", "date", "amount", "categoryName");
+		try (Stream<Expense> stream = mongoTemplate.stream(query, Expense.class)) {
+			for(Expense expense : (Iterable<Expense>) stream::iterator) {
+				accumulate(rollups, expense, 1);
+				expenses++;
+			}
+		}
+		mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), ExpenseRollup.class);
+		if(!rollups.isEmpty())
+			mongoTemplate.insert(rollups.values(), ExpenseRollup.class);
+		return expenses;
+	}
+
+	/**
+	 * Recomputes the rollups of every user that has expenses, see {@link #rebuild(String)}
+	 * @return {@code long} the number of expenses the rollups were rebuilt from
+	 */
+	public long rebuildAll() {
+		List<String> userIds = mongoTemplate.findDistinct(new Query(), "userId", Expense.class, String.class);
+		long expenses = 0;
+		for(String userId : userIds) {
+			expenses += rebuild(userId);
+			log.debug("Rebuilt rollups of user {}, {} expenses so far", userId, expenses);
+		}
+		return expenses;
+	}
+
+	/**
+	 * Totals a user's spending per category between two days, reading month rollups for every whole month in the range
+	 * and day rollups for the days around them
+	 * @param userId {@link String} the id of the user
+	 * @param startDate {@link LocalDate} the first day of the range
+	 * @param endDate {@link LocalDate} the last day of the range, inclusive
+	 * @return {@link List} of {@link SpendingSummaryDTO} keyed by category name, without min and max
+	 */
+	public List<SpendingSummaryDTO> totalsByCategory(String userId, LocalDate startDate, LocalDate endDate) {
+		LocalDate firstWholeMonth = startDate.getDayOfMonth() == 1 ? startDate : startDate.withDayOfMonth(1).plusMonths(1);
+		LocalDate afterLastWholeMonth = endDate.plusDays(1).withDayOfMonth(1);
+		Criteria buckets;
+		if(!firstWholeMonth.isBefore(afterLastWholeMonth)) {
+			buckets = inBuckets(Granularity.DAY, startDate, endDate.plusDays(1));
+		} else {
+			buckets = new Criteria().orOperator(
+					inBuckets(Granularity.DAY, startDate, firstWholeMonth),
+					inBuckets(Granularity.MONTH, firstWholeMonth, afterLastWholeMonth),
+					inBuckets(Granularity.DAY, afterLastWholeMonth, endDate.plusDays(1)));
+		}
+		Query query = Query.query(new Criteria().andOperator(Criteria.where("userId").is(userId), buckets));
+		return summarize(mongoTemplate.find(query, ExpenseRollup.class), ExpenseRollup::getCategory);
+	}
+
+	/**
+	 * Totals a user's spending per day or month between two days
+	 * @param userId {@link String} the id of the user
+	 * @param granularity {@link Granularity} the size of the periods
+	 * @param startDate {@link LocalDate} the first day of the range
+	 * @param endDate {@link LocalDate} the last day of the range, inclusive
+	 * @return {@link List} of {@link SpendingSummaryDTO} keyed by the first day of the period (yyyy-MM-dd), without min and max
+	 */
+	public List<SpendingSummaryDTO> trend(String userId, Granularity granularity, LocalDate startDate, LocalDate endDate) {
+		Query query = Query.query(Criteria.where("userId").is(userId)
+				.andOperator(inBuckets(granularity, granularity.bucketOf(startDate), endDate.plusDays(1))))
+				.with(Sort.by("bucket"));
+		return summarize(mongoTemplate.find(query, ExpenseRollup.class), rollup -> rollup.getBucket().toString());
+	}
+
+	private static Criteria inBuckets(Granularity granularity, LocalDate from, LocalDate until) {
+		return Criteria.where("granularity").is(granularity).and("bucket").gte(from).lt(until);
+	}
+
+	/**
+	 * Sums rollups into one summary per key
+	 * @param rollups {@link List} of {@link ExpenseRollup} the rollups
+	 * @param key {@link Function} extracting the key a rollup is summed under
+	 * @return {@link List} of {@link SpendingSummaryDTO} ordered by key
+	 */
+	private static List<SpendingSummaryDTO> summarize(List<ExpenseRollup> rollups, Function<ExpenseRollup, String> key) {
+		Map<String, SpendingSummaryDTO> summaries = new TreeMap<>();
+		for(ExpenseRollup rollup : rollups) {
+			SpendingSummaryDTO summary = summaries.computeIfAbsent(key.apply(rollup), k -> new SpendingSummaryDTO(k, 0.0, 0L, null, null, null));
+			summary.setTotal(summary.getTotal() + rollup.getTotal());
+			summary.setCount(summary.getCount() + rollup.getCount());
+		}
+		List<SpendingSummaryDTO> result = new ArrayList<>(summaries.values());
+		result.forEach(summary -> summary.setAverage(summary.getCount() == 0 ? null : summary.getTotal() / summary.getCount()));
+		return result;
+	}
+
+	/**
+	 * Adds an expense's amount to its day and month rollups
+	 * @param rollups {@link Map} of rollup id to {@link ExpenseRollup} the rollups being accumulated
+	 * @param expense {@link Expense} the expense
+	 * @param sign {@code int} 1 to add the expense, -1 to remove it
+	 */
+	private static void accumulate(Map<String, ExpenseRollup> rollups, Expense expense, int sign) {
+		if(expense.getUserId() == null || expense.getDate() == null || expense.getAmount() == null)
+			return;
+		String category = categoryOf(expense);
+		for(Granularity granularity : Granularity.values()) {
+			LocalDate bucket = granularity.bucketOf(expense.getDate().toLocalDate());
+			ExpenseRollup rollup = rollups.computeIfAbsent(ExpenseRollup.idOf(expense.getUserId(), granularity, bucket, category), id -> {
+				ExpenseRollup created = new ExpenseRollup();
+				created.setId(id);
+				created.setUserId(expense.getUserId());
+				created.setCategory(category);
+				created.setGranularity(granularity);
+				created.setBucket(bucket);
+				created.setTotal(0.0);
+				created.setCount(0L);
+				return created;
+			});
+			rollup.setTotal(rollup.getTotal() + sign * expense.getAmount());
+			rollup.setCount(rollup.getCount() + sign);
+		}
+	}
+
+	private static String categoryOf(Expense expense) {
+		if(expense.getCategory() != null && expense.getCategory().getName() != null)
+			return expense.getCategory().getName();
+		return expense.getCategoryName() == null ? UNCATEGORIZED : expense.getCategoryName();
+	}
+}
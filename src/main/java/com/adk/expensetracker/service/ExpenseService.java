@@ -1,24 +1,57 @@
 package com.adk.expensetracker.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import com.adk.expensetracker.dto.BulkImportResultDTO;
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.dto.SummaryPeriod;
 import com.adk.expensetracker.errorhandling.EntityNotFoundException;
+import com.adk.expensetracker.errorhandling.FieldBlankException;
+import com.adk.expensetracker.errorhandling.MalformedImportException;
+import com.adk.expensetracker.errorhandling.SyncHistoryExpiredException;
 import com.adk.expensetracker.model.Category;
 import com.adk.expensetracker.model.Expense;
-import com.adk.expensetracker.model.User;
+import com.adk.expensetracker.model.ExpenseRollup;
+import com.adk.expensetracker.model.ExpenseVersion;
 import com.adk.expensetracker.repo.CategoryRepo;
 import com.adk.expensetracker.repo.ExpenseRepo;
+import com.adk.expensetracker.util.ExpenseCursor;
+import com.adk.expensetracker.util.ExpenseImportReader;
+import com.mongodb.bulk.BulkWriteError;
 
 /**
  * Implementation of {@link IExpenseService}
  */
 @Service
+@Timed("expense.service")
 public class ExpenseService implements IExpenseService {
+
+	public static final int MAX_PAGE_SIZE = 500;
+	// failures beyond this are only counted so a bad import can't build an unbounded response
+	public static final int MAX_REPORTED_IMPORT_FAILURES = 1000;
 	
 	@Autowired
 	ExpenseRepo expenseRepo;
@@ -29,19 +62,195 @@ public class ExpenseService implements IExpenseService {
 	@Autowired
 	CategoryRepo categoryRepo;
 
+	@Autowired
+	CategoryCache categoryCache;
+
+	@Autowired
+	ResultSizeMetrics resultSizeMetrics;
+
+	@Autowired
+	MongoTemplate mongoTemplate;
+
+	@Autowired
+	ExpenseRollupService rollupService;
+
+	@Autowired
+	ExpenseVersionService versionService;
+
+	@Value("${expense.import.batch-size:1000}")
+	int importBatchSize;
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public Expense createExpense(String userId, Expense expense) {
-		User returnedUser = userService.readUser(userId);
-		expense.setUser(returnedUser);
+		userService.verifyUserExists(userId);
+		expense.setUserId(userId);
 		expense.checkRequiredFields();
 		if(expense.getCategory() != null) {
 			Category category = checkAndAddCategory(expense.getCategory());
 			expense.setCategory(category);
 		}
-		return expenseRepo.save(expense);
+		Expense savedExpense = saveWithSyncVersion(expense);
+		rollupService.add(List.of(savedExpense));
+		versionService.bump(userId);
+		return savedExpense;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BulkImportResultDTO createExpenses(String userId, Iterator<ExpenseImportReader.Row> rows) {
+		userService.verifyUserExists(userId);
+		BulkImportResultDTO result = new BulkImportResultDTO(0, 0, 0, false, new ArrayList<>());
+		List<ExpenseImportReader.Row> batch = new ArrayList<>(importBatchSize);
+		try {
+			while(hasNextImportRow(rows, result)) {
+				ExpenseImportReader.Row row = rows.next();
+				result.setReceived(result.getReceived() + 1);
+				if(row.error() != null) {
+					addImportFailure(result, row.number(), row.error());
+					continue;
+				}
+				Expense expense = row.expense();
+				expense.setId(null);
+				expense.setUserId(userId);
+				try {
+					expense.checkRequiredFields();
+				} catch (FieldBlankException e) {
+					addImportFailure(result, row.number(), e.getMessage());
+					continue;
+				}
+				batch.add(row);
+				if(batch.size() >= importBatchSize) {
+					insertImportBatch(batch, result);
+					batch.clear();
+				}
+			}
+			if(!batch.isEmpty())
+				insertImportBatch(batch, result);
+		} finally {
+			// batches inserted before a malformed body aborted the import are still new data
+			if(result.getInserted() > 0)
+				versionService.bump(userId);
+		}
+		return result;
+	}
+
+	/**
+	 * Resolves the categories of a batch of imported expenses and inserts them in a single unordered bulk write
+	 * @param batch {@link List} of {@link ExpenseImportReader.Row} valid rows to insert
+	 * @param result {@link BulkImportResultDTO} the import result updated with the inserted and failed rows
+	 */
+	private void insertImportBatch(List<ExpenseImportReader.Row> batch, BulkImportResultDTO result) {
+		Set<String> categoryNames = new HashSet<>();
+		for(ExpenseImportReader.Row row : batch) {
+			Category category = row.expense().getCategory();
+			if(category != null && category.getName() != null)
+				categoryNames.add(category.getName());
+		}
+		Map<String, Category> categories = new HashMap<>(categoryCache.findAllByName(categoryNames));
+		Set<String> missingNames = new HashSet<>(categoryNames);
+		missingNames.removeAll(categories.keySet());
+		if(!missingNames.isEmpty())
+			categories.putAll(createCategories(missingNames));
+		List<Expense> expenses = new ArrayList<>(batch.size());
+		// one allocation for the whole batch, versions of rows that fail to insert are simply never used
+		ExpenseVersionService.SyncVersions syncVersions = versionService.allocateSyncVersions(batch.get(0).expense().getUserId(), batch.size());
+		long syncVersion = syncVersions.first();
+		for(ExpenseImportReader.Row row : batch) {
+			Expense expense = row.expense();
+			if(expense.getCategory() != null)
+				expense.setCategory(categories.get(expense.getCategory().getName()));
+			stampSyncVersion(expense, syncVersion++);
+			expenses.add(expense);
+		}
+		try {
+			int inserted = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class).insert(expenses).execute().getInsertedCount();
+			result.setInserted(result.getInserted() + inserted);
+			rollupService.add(expenses);
+		} catch (BulkOperationException e) {
+			result.setInserted(result.getInserted() + e.getResult().getInsertedCount());
+			Set<Integer> failedIndexes = new HashSet<>();
+			for(BulkWriteError error : e.getErrors()) {
+				failedIndexes.add(error.getIndex());
+				addImportFailure(result, batch.get(error.getIndex()).number(), error.getMessage());
+			}
+			List<Expense> insertedExpenses = new ArrayList<>(expenses.size());
+			for(int i = 0; i < expenses.size(); i++) {
+				if(!failedIndexes.contains(i))
+					insertedExpenses.add(expenses.get(i));
+			}
+			rollupService.add(insertedExpenses);
+		} finally {
+			versionService.releaseSyncVersions(syncVersions);
+		}
+	}
+
+	/**
+	 * Saves an expense stamped with the next sync version of its user, releasing the version once the save finished
+	 * @param expense {@link Expense} the expense
+	 * @return {@link Expense} the saved expense
+	 */
+	private Expense saveWithSyncVersion(Expense expense) {
+		ExpenseVersionService.SyncVersions syncVersions = versionService.allocateSyncVersions(expense.getUserId(), 1);
+		try {
+			stampSyncVersion(expense, syncVersions.last());
+			return expenseRepo.save(expense);
+		} finally {
+			versionService.releaseSyncVersions(syncVersions);
+		}
+	}
+
+	/**
+	 * Checks whether an import has another row, ending the import instead of failing it when the body turns out to be
+	 * malformed so the rows already inserted are still reported
+	 * @param rows {@link Iterator} of {@link ExpenseImportReader.Row} the rows of the import
+	 * @param result {@link BulkImportResultDTO} the import result, marked aborted if the body is malformed
+	 * @return {@code boolean} true if another row can be read
+	 */
+	private static boolean hasNextImportRow(Iterator<ExpenseImportReader.Row> rows, BulkImportResultDTO result) {
+		try {
+			return rows.hasNext();
+		} catch (MalformedImportException e) {
+			result.setAborted(true);
+			addImportFailure(result, result.getReceived() + 1, e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Creates categories in a single unordered bulk insert and reads them back with their ids, categories created by
+	 * another request in the meantime fail the unique name index and are read back as well
+	 * @param names {@link Set} of {@link String} the names of the categories
+	 * @return {@link Map} of category name to {@link Category} the stored categories
+	 */
+	private Map<String, Category> createCategories(Set<String> names) {
+		List<Category> categories = new ArrayList<>(names.size());
+		for(String name : names) {
+			Category category = new Category();
+			category.setName(name);
+			categories.add(category);
+		}
+		try {
+			mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Category.class).insert(categories).execute();
+		} catch (BulkOperationException e) {
+			// only duplicate names of categories created concurrently fail, the read below finds them
+		}
+		return categoryCache.findAllByName(names);
+	}
+
+	private static void stampSyncVersion(Expense expense, long syncVersion) {
+		expense.setSyncVersion(syncVersion);
+		expense.setModifiedAt(LocalDateTime.now());
+	}
+
+	private static void addImportFailure(BulkImportResultDTO result, int row, String message) {
+		result.setFailed(result.getFailed() + 1);
+		if(result.getFailures().size() < MAX_REPORTED_IMPORT_FAILURES)
+			result.getFailures().add(new BulkImportResultDTO.RowFailure(row, message));
 	}
 
 	/**
@@ -50,7 +259,7 @@ public class ExpenseService implements IExpenseService {
 	@Override
 	public Expense readExpense(String expenseId) {
 		Optional<Expense> returnedResponse = expenseRepo.findById(expenseId);
-		if( returnedResponse.isEmpty() )
+		if( returnedResponse.isEmpty() || returnedResponse.get().isDeleted() )
 			throw new EntityNotFoundException(Expense.class, "id", expenseId);
 		return returnedResponse.get();
 	}
@@ -59,9 +268,9 @@ public class ExpenseService implements IExpenseService {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public List<Expense> readExpensesForUser(String userId) {
-		userService.readUser(userId);
-		List<Expense> returnedExpenses = expenseRepo.findByUserId(userId);
+	public <T> List<T> readExpensesForUser(String userId, Class<T> type) {
+		userService.verifyUserExists(userId);
+		List<T> returnedExpenses = resultSizeMetrics.record("byUser", userId, expenseRepo.findByUserId(userId, type));
 		if(returnedExpenses == null || returnedExpenses.isEmpty())
 			throw new EntityNotFoundException(Expense.class, "user.id", userId);
 		return returnedExpenses;
@@ -71,9 +280,52 @@ public class ExpenseService implements IExpenseService {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public List<Expense> readExpensesWithDateRange(LocalDateTime startDate, LocalDateTime endDate, String userId) {
-		userService.readUser(userId);
-        return expenseRepo.findByUserIdAndBetweenTwoDates(userId, startDate, endDate);
+	public List<Expense> readExpensePageForUser(String userId, String cursor, int size) {
+		userService.verifyUserExists(userId);
+		PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+		if(cursor == null || cursor.isBlank())
+			return resultSizeMetrics.record("page", userId, expenseRepo.findPageByUserId(userId, pageRequest));
+		ExpenseCursor expenseCursor = ExpenseCursor.decode(cursor);
+		return resultSizeMetrics.record("page", userId, expenseRepo.findPageByUserIdAfter(userId, expenseCursor.getDate(), expenseCursor.getId(), pageRequest));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Stream<Expense> streamExpensesForUser(String userId) {
+		userService.verifyUserExists(userId);
+		return expenseRepo.streamByUserId(userId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Stream<Expense> streamExpensesForExport(String userId, LocalDateTime startDate, LocalDateTime endDate, String categoryName) {
+		userService.verifyUserExists(userId);
+		Criteria criteria = Criteria.where("userId").is(userId).and("deleted").ne(true);
+		if(categoryName != null && !categoryName.isBlank())
+			criteria = criteria.and("categoryName").is(categoryName);
+		if(startDate != null || endDate != null) {
+			Criteria dateCriteria = criteria.and("date");
+			if(startDate != null)
+				dateCriteria.gte(startDate);
+			if(endDate != null)
+				dateCriteria.lt(endDate);
+		}
+		// date only, the userId_category_date index can't also provide the _id order without an in-memory sort
+		Query query = Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "date"));
+		return mongoTemplate.stream(query, Expense.class);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> List<T> readExpensesWithDateRange(LocalDateTime startDate, LocalDateTime endDate, String userId, Class<T> type) {
+		userService.verifyUserExists(userId);
+        return resultSizeMetrics.record("dateRange", userId, expenseRepo.findByUserIdAndBetweenTwoDates(userId, startDate, endDate, type));
 	}
 
 	/**
@@ -81,14 +333,22 @@ public class ExpenseService implements IExpenseService {
 	 */
 	@Override
 	public Expense updateExpense(String expenseId, Expense expense) {
-		expense.checkRequiredFields();
 		Expense foundExpense = readExpense(expenseId);
 		expense.setId(foundExpense.getId());
+		// an expense always stays with its owner, the body's userId is ignored
+		expense.setUserId(foundExpense.getUserId());
+		expense.checkRequiredFields();
 		if(expense.getCategory() != null) {
 			Category category = checkAndAddCategory(expense.getCategory());
 			expense.setCategory(category);
 		}
-        return expenseRepo.save(expense);
+		expense.setDeleted(false);
+		expense.setDeletedAt(null);
+		Expense savedExpense = saveWithSyncVersion(expense);
+		rollupService.remove(List.of(foundExpense));
+		rollupService.add(List.of(savedExpense));
+		versionService.bump(savedExpense.getUserId());
+		return savedExpense;
 	}
 
 	/**
@@ -97,7 +357,16 @@ public class ExpenseService implements IExpenseService {
 	@Override
 	public Expense deleteExpense(String expenseId) {
 		Expense returnedResponse = readExpense(expenseId);
-		expenseRepo.deleteById(expenseId);
+		// kept as a tombstone so the deletion reaches syncing clients, the TTL index on deletedAt removes it later.
+		// saved rather than updated in place so the write also raises the mapping events the local event fallback relies on
+		Expense tombstone = new Expense();
+		tombstone.setId(returnedResponse.getId());
+		tombstone.setUserId(returnedResponse.getUserId());
+		tombstone.setDeleted(true);
+		tombstone.setDeletedAt(LocalDateTime.now());
+		saveWithSyncVersion(tombstone);
+		rollupService.remove(List.of(returnedResponse));
+		versionService.bump(returnedResponse.getUserId());
 		return returnedResponse;
 	}
 
@@ -105,9 +374,9 @@ public class ExpenseService implements IExpenseService {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public List<Expense> readExpenseForUserByCategory(String userId, String categoryName) {
-		userService.readUser(userId);
-		return expenseRepo.findByUserIdAndCategoryName(userId, categoryName);
+	public <T> List<T> readExpenseForUserByCategory(String userId, String categoryName, Class<T> type) {
+		userService.verifyUserExists(userId);
+		return resultSizeMetrics.record("byCategory", userId, expenseRepo.findByUserIdAndCategoryName(userId, categoryName, type));
 	}
 
 	/**
@@ -115,7 +384,102 @@ public class ExpenseService implements IExpenseService {
 	 */
 	@Override
 	public Category checkAndAddCategory(Category category) {
-		Optional<Category> foundCategory = categoryRepo.findByName(category.getName());
-        return foundCategory.orElseGet(() -> categoryRepo.save(category));
+		Optional<Category> foundCategory = categoryCache.findByName(category.getName());
+        return foundCategory.orElseGet(() -> categoryCache.put(categoryRepo.save(category)));
     }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Category createCategory(String categoryName) {
+		categoryCache.invalidate(categoryName);
+		Category category = new Category();
+		category.setName(categoryName);
+		return checkAndAddCategory(category);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<SpendingSummaryDTO> summarizeByCategory(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+		userService.verifyUserExists(userId);
+		return expenseRepo.summarizeByCategory(userId, startDate, endDate);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<SpendingSummaryDTO> summarizeByPeriod(String userId, SummaryPeriod period, LocalDateTime startDate, LocalDateTime endDate) {
+		userService.verifyUserExists(userId);
+		// dates are stored converted from the system time zone so periods are truncated in that same zone
+		return expenseRepo.summarizeByPeriod(userId, startDate, endDate, period.getUnit(), ZoneId.systemDefault().getId());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ExpenseVersionService.SyncState readSyncState(String userId, long since) {
+		userService.verifyUserExists(userId);
+		ExpenseVersionService.SyncState syncState = versionService.syncState(userId);
+		if(since > 0 && since < syncState.horizon())
+			throw new SyncHistoryExpiredException(userId, since);
+		return syncState;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Expense> readExpenseChanges(String userId, long since, long committed, int size) {
+		userService.verifyUserExists(userId);
+		PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+		return resultSizeMetrics.record("changes", userId, expenseRepo.findChangesByUserId(userId, since, committed, pageRequest));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Optional<ExpenseVersion> readExpenseVersion(String userId) {
+		return versionService.current(userId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<SpendingSummaryDTO> readSpendingTotals(String userId, LocalDate startDate, LocalDate endDate) {
+		userService.verifyUserExists(userId);
+		return rollupService.totalsByCategory(userId, startDate, endDate);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<SpendingSummaryDTO> readSpendingTrend(String userId, ExpenseRollup.Granularity granularity, LocalDate startDate, LocalDate endDate) {
+		userService.verifyUserExists(userId);
+		return rollupService.trend(userId, granularity, startDate, endDate);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long rebuildRollups(String userId) {
+		userService.verifyUserExists(userId);
+		return rollupService.rebuild(userId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<SpendingSummaryDTO> summarizeByUser(LocalDateTime startDate, LocalDateTime endDate) {
+		return expenseRepo.summarizeByUser(startDate, endDate);
+	}
 }
@@ -0,0 +1,182 @@
+package com.adk.expensetracker.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.ExpenseVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Tracks the change version of every user's expenses so unchanged reads can be answered with 304 Not Modified
+ * without querying the expenses. Versions are cached for a short time, another instance may serve a stale version
+ * (and a stale 304) for at most that long after a write, or until the change reaches its CacheInvalidationListener
+ */
+@Service
+public class ExpenseVersionService {
+
+	private static final long MARK_INTERVAL_MILLIS = Duration.ofDays(1).toMillis();
+
+	private final MongoTemplate mongoTemplate;
+	private final Cache<String, Optional<ExpenseVersion>> versions;
+	private final Duration pendingTimeout;
+
+	public ExpenseVersionService(MongoTemplate mongoTemplate, @Value("${expense.etag.version-cache.ttl:5s}") Duration ttl,
+								 @Value("${expense.etag.version-cache.max-size:10000}") long maxSize,
+								 @Value("${expense.sync.pending-timeout:30s}") Duration pendingTimeout) {
+		this.mongoTemplate = mongoTemplate;
+		this.versions = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).build();
+		this.pendingTimeout = pendingTimeout;
+	}
+
+	/**
+	 * Sync versions allocated to a write, released once the write finished whether it succeeded or not
+	 * @param userId {@link String} id of the user
+	 * @param token {@link String} identifies the allocation among the user's pending ones
+	 * @param first {@code long} the first allocated sync version
+	 * @param last {@code long} the last allocated sync version
+	 */
+	public record SyncVersions(String userId, String token, long first, long last) { }
+
+	/**
+	 * Sync state of a user's expenses
+	 * @param version {@code long} the change version of the user's expenses, 0 if they were never written
+	 * @param committed {@code long} highest sync version up to which every allocated version was written or abandoned
+	 * @param horizon {@code long} lowest sync version changes can still be served after, tombstones of older deletions may be gone
+	 */
+	public record SyncState(long version, long committed, long horizon) { }
+
+	/**
+	 * Retrieves the current version of a user's expenses
+	 * @param userId {@link String} id of the user
+	 * @return {@link Optional} of {@link ExpenseVersion}, empty if the user's expenses were never written
+	 */
+	public Optional<ExpenseVersion> current(String userId) {
+		Optional<ExpenseVersion> cached = versions.getIfPresent(userId);
+		if(cached != null)
+			return cached;
+		// allocating sync versions creates the document before the first bump gives it a version
+		Optional<ExpenseVersion> found = Optional.ofNullable(mongoTemplate.findById(userId, ExpenseVersion.class))
+				.filter(version -> version.getVersion() != null);
+		versions.put(userId, found);
+		return found;
+	}
+
+	/**
+	 * Increments the version of a user's expenses, must be called after every write to them
+	 * @param userId {@link String} id of the user
+	 */
+	public void bump(String userId) {
+		if(userId == null)
+			return;
+		ExpenseVersion bumped = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(userId)),
+				new Update().inc("version", 1).set("modifiedAt", Instant.now()),
+				FindAndModifyOptions.options().upsert(true).returnNew(true), ExpenseVersion.class);
+		versions.put(userId, Optional.ofNullable(bumped));
+	}
+
+	/**
+	 * Removes a user's version from the cache so the next read sees a version bumped by another instance
+	 * @param userId {@link String} id of the user
+	 */
+	public void invalidate(String userId) {
+		versions.invalidate(userId);
+	}
+
+	/**
+	 * Allocates consecutive sync versions for expense writes of a user, must be called before the expenses are written and
+	 * followed by {@link #releaseSyncVersions(SyncVersions)} once they are. Until then, or until the pending timeout passes,
+	 * changes with a higher sync version aren't served so a write committing late can't be skipped by a client.
+	 * Runs as a single pipeline update that also drops timed out allocations and records a {@link ExpenseVersion.SequenceMark}
+	 * when the last one is more than a day old
+	 * @param userId {@link String} id of the user
+	 * @param count {@code int} the number of sync versions to allocate
+	 * @return {@link SyncVersions} the allocated sync versions
+	 */
+	public SyncVersions allocateSyncVersions(String userId, int count) {
+		String token = new ObjectId().toHexString();
+		Document sequence = new Document("$ifNull", List.of("$sequence", 0L));
+		Document pending = new Document("$concatArrays", List.of(
+				newerThan("$pending", pendingTimeout.toMillis()),
+				List.of(new Document("token", token).append("first", new Document("$add", List.of(sequence, 1L))).append("at", "$$NOW"))));
+		Document recentMarks = newerThan("$marks", Duration.ofDays(Expense.TOMBSTONE_RETENTION_DAYS).toMillis() + MARK_INTERVAL_MILLIS);
+		Document lastMarkAt = new Document("$let", new Document("vars", new Document("last",
+				new Document("$arrayElemAt", List.of(new Document("$ifNull", List.of("$marks", List.of())), -1))))
+				.append("in", "$$last.at"));
+		Document marks = new Document("$cond", List.of(
+				new Document("$lt", List.of(lastMarkAt, new Document("$subtract", List.of("$$NOW", MARK_INTERVAL_MILLIS)))),
+				new Document("$concatArrays", List.of(recentMarks, List.of(new Document("at", "$$NOW").append("sequence", sequence)))),
+				recentMarks));
+		AggregationOperation set = context -> new Document("$set", new Document("sequence", new Document("$add", List.of(sequence, (long) count)))
+				.append("pending", pending).append("marks", marks));
+		ExpenseVersion allocated = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(userId)), AggregationUpdate.from(List.of(set)),
+				FindAndModifyOptions.options().upsert(true).returnNew(true), ExpenseVersion.class);
+		long last = Objects.requireNonNull(allocated).getSequence();
+		return new SyncVersions(userId, token, last - count + 1, last);
+	}
+
+	/**
+	 * Releases sync versions once the write they were allocated to finished, successfully or not
+	 * @param syncVersions {@link SyncVersions} the allocated sync versions
+	 */
+	public void releaseSyncVersions(SyncVersions syncVersions) {
+		mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(syncVersions.userId())),
+				new Update().pull("pending", new Document("token", syncVersions.token())), ExpenseVersion.class);
+	}
+
+	/**
+	 * Reads the current sync state of a user's expenses, bypassing the cache
+	 * @param userId {@link String} id of the user
+	 * @return {@link SyncState} the sync state, all zeros if the user's expenses were never written
+	 */
+	public SyncState syncState(String userId) {
+		ExpenseVersion found = mongoTemplate.findById(userId, ExpenseVersion.class);
+		if(found == null)
+			return new SyncState(0, 0, 0);
+		long version = found.getVersion() == null ? 0 : found.getVersion();
+		long sequence = found.getSequence() == null ? 0 : found.getSequence();
+		Instant now = Instant.now();
+		long committed = sequence;
+		for(ExpenseVersion.PendingSyncVersions pending : Optional.ofNullable(found.getPending()).orElse(List.of())) {
+			if(pending.getAt().isAfter(now.minus(pendingTimeout)))
+				committed = Math.min(committed, pending.getFirst() - 1);
+		}
+		// tombstones removed by now were written before the cutoff, so before the first mark after it
+		Instant cutoff = now.minus(Duration.ofDays(Expense.TOMBSTONE_RETENTION_DAYS));
+		long horizon = sequence;
+		for(ExpenseVersion.SequenceMark mark : Optional.ofNullable(found.getMarks()).orElse(List.of())) {
+			if(!mark.getAt().isBefore(cutoff)) {
+				horizon = mark.getSequence();
+				break;
+			}
+		}
+		return new SyncState(version, committed, horizon);
+	}
+
+	/**
+	 * Builds an expression keeping the elements of an array field whose "at" is less than an age old
+	 * @param field {@link String} the array field, may be missing
+	 * @param maxAgeMillis {@code long} the age in milliseconds
+	 * @return {@link Document} the $filter expression
+	 */
+	private static Document newerThan(String field, long maxAgeMillis) {
+		return new Document("$filter", new Document("input", new Document("$ifNull", List.of(field, List.of())))
+				.append("cond", new Document("$gt", List.of("$$this.at", new Document("$subtract", List.of("$$NOW", maxAgeMillis))))));
+	}
+}
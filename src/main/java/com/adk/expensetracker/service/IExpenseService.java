@@ -1,10 +1,20 @@
 package com.adk.expensetracker.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import com.adk.expensetracker.dto.BulkImportResultDTO;
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.dto.SummaryPeriod;
 import com.adk.expensetracker.model.Category;
 import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.ExpenseRollup;
+import com.adk.expensetracker.model.ExpenseVersion;
+import com.adk.expensetracker.util.ExpenseImportReader;
 
 /**
  * Interface containing all the methods needed to interact with Expenses
@@ -19,6 +29,15 @@ public interface IExpenseService {
 	 */
 	Expense createExpense(String userId, Expense expense);
 
+	/**
+	 * Creates many expenses for a user. The user is read once, categories are resolved together and expenses are written
+	 * in unordered batches. Rows that are invalid or fail to insert are reported without stopping the rest of the import
+	 * @param userId {@link String} the id of the user the expenses belong to
+	 * @param rows {@link Iterator} of {@link ExpenseImportReader.Row} the rows to import, read one at a time
+	 * @return {@link BulkImportResultDTO} the number of rows inserted and the rows that failed
+	 */
+	BulkImportResultDTO createExpenses(String userId, Iterator<ExpenseImportReader.Row> rows);
+
 	/**
 	 * Reads/retrieves an expense by its id
 	 * @param expenseId {@link String} id of the String
@@ -29,33 +48,83 @@ public interface IExpenseService {
 	/**
 	 * Reads/retrieves expenses by its user id
 	 * @param userId {@link String} id of the user attached to the expense
-	 * @return {@link List} of {@link Expense} where expense's user id is equal to passed in user id
+	 * @param type {@link Class} of the DTO the expenses are read into, see {@link com.adk.expensetracker.dto.ExpenseView}
+	 * @return {@link List} of the DTO where expense's user id is equal to passed in user id
+	 */
+	<T> List<T> readExpensesForUser(String userId, Class<T> type);
+
+	/**
+	 * Reads/retrieves a single page of expenses by its user id ordered by date then id (newest first)
+	 * @param userId {@link String} id of the user attached to the expense
+	 * @param cursor {@link String} opaque cursor returned with the previous page, {@code null} for the first page
+	 * @param size {@code int} the maximum number of expenses in the page
+	 * @return {@link List} of {@link Expense} containing the expenses of the page
+	 */
+	List<Expense> readExpensePageForUser(String userId, String cursor, int size);
+
+	/**
+	 * Reads/retrieves the sync state of a user's expenses, checking that the changes after a sync version can still be served
+	 * @param userId {@link String} id of the user attached to the expenses
+	 * @param since {@code long} the last sync version the client has seen, 0 for a full sync
+	 * @return {@link ExpenseVersionService.SyncState} the sync state
+	 * @throws com.adk.expensetracker.errorhandling.SyncHistoryExpiredException if deletions after since may no longer be kept
 	 */
-	List<Expense> readExpensesForUser(String userId);
+	ExpenseVersionService.SyncState readSyncState(String userId, long since);
+
+	/**
+	 * Reads/retrieves the expenses of a user written after a sync version, including deleted ones, ordered by sync version
+	 * @param userId {@link String} id of the user attached to the expenses
+	 * @param since {@code long} the last sync version the client has seen, 0 for a full sync
+	 * @param committed {@code long} the committed sync version of the user, see {@link #readSyncState(String, long)},
+	 * 			changes after it aren't returned so a write still running can't be skipped
+	 * @param size {@code int} the maximum number of changes
+	 * @return {@link List} of {@link Expense} containing the changed and deleted expenses
+	 */
+	List<Expense> readExpenseChanges(String userId, long since, long committed, int size);
+
+	/**
+	 * Streams all expenses for a user id straight from a database cursor ordered by date then id (newest first)
+	 * @param userId {@link String} id of the user attached to the expense
+	 * @return {@link Stream} of {@link Expense} that must be closed once consumed
+	 */
+	Stream<Expense> streamExpensesForUser(String userId);
+
+	/**
+	 * Streams a user's expenses for export straight from a database cursor ordered by date (newest first)
+	 * @param userId {@link String} id of the user attached to the expense
+	 * @param startDate {@link LocalDateTime} only expenses on or after this date, {@code null} for no lower bound
+	 * @param endDate {@link LocalDateTime} only expenses before this date, {@code null} for no upper bound
+	 * @param categoryName {@link String} only expenses in this category, {@code null} for every category
+	 * @return {@link Stream} of {@link Expense} that must be closed once consumed
+	 */
+	Stream<Expense> streamExpensesForExport(String userId, LocalDateTime startDate, LocalDateTime endDate, String categoryName);
 
 	/**
 	 * Reads/retrieves expenses by its user id and category name
 	 * @param userId {@link String} id of the user attached to the expense
 	 * @param categoryName {@link String} category name attached to the expense
-	 * @return {@link List} of {@link Expense} where expense's user id is equal to passed in user id and expense's
+	 * @param type {@link Class} of the DTO the expenses are read into, see {@link com.adk.expensetracker.dto.ExpenseView}
+	 * @return {@link List} of the DTO where expense's user id is equal to passed in user id and expense's
 	 * 		category.name is equal to passed in category name
 	 */
-	List<Expense> readExpenseForUserByCategory(String userId, String categoryName);
+	<T> List<T> readExpenseForUserByCategory(String userId, String categoryName, Class<T> type);
 
 	/**
 	 * Reads/retrieves expenses by its user id and its date is between start and end date
 	 * @param startDate {@link LocalDateTime} the beginning range of acceptable dates on an expense
 	 * @param endDate {@link LocalDateTime} the end range of acceptable dates on an expense
 	 * @param userId {@link String} id of the user attached to the expense
-	 * @return {@link List} of {@link Expense} where expense's user id is equal to passed in user id and expense's
+	 * @param type {@link Class} of the DTO the expenses are read into, see {@link com.adk.expensetracker.dto.ExpenseView}
+	 * @return {@link List} of the DTO where expense's user id is equal to passed in user id and expense's
 	 *  		date is between the start and end dates
 	 */
-	List<Expense> readExpensesWithDateRange(LocalDateTime startDate, LocalDateTime endDate, String userId);
+	<T> List<T> readExpensesWithDateRange(LocalDateTime startDate, LocalDateTime endDate, String userId, Class<T> type);
 
 	/**
 	 * Updates and expense by expense id
 	 * @param expenseId {@link String} the expense id
-	 * @param expense {@link Expense} the information that the existing expense is updated to
+	 * @param expense {@link Expense} the information that the existing expense is updated to, its userId is ignored and may be
+	 * 			left out since an expense always stays with its owner
 	 * @return {@link Expense} the updated expense
 	 */
 	Expense updateExpense(String expenseId, Expense expense);
@@ -73,5 +142,71 @@ public interface IExpenseService {
 	 * @return {@link Category} the category saved in the repo
 	 */
 	Category checkAndAddCategory(Category category);
+
+	/**
+	 * Creates a category if it doesn't already exist, invalidating any cached copy of it first
+	 * @param categoryName {@link String} the name of the category
+	 * @return {@link Category} the category saved in the repo
+	 */
+	Category createCategory(String categoryName);
+
+	/**
+	 * Summarizes a user's spending per category for expenses dated within a range
+	 * @param userId {@link String} id of the user attached to the expenses
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @return {@link List} of {@link SpendingSummaryDTO} with one entry per category
+	 */
+	List<SpendingSummaryDTO> summarizeByCategory(String userId, LocalDateTime startDate, LocalDateTime endDate);
+
+	/**
+	 * Summarizes a user's spending per period for expenses dated within a range
+	 * @param userId {@link String} id of the user attached to the expenses
+	 * @param period {@link SummaryPeriod} the period the expenses are grouped by
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @return {@link List} of {@link SpendingSummaryDTO} with one entry per period that contains expenses
+	 */
+	List<SpendingSummaryDTO> summarizeByPeriod(String userId, SummaryPeriod period, LocalDateTime startDate, LocalDateTime endDate);
+
+	/**
+	 * Reads the change version of a user's expenses, incremented by every write to them
+	 * @param userId {@link String} id of the user
+	 * @return {@link Optional} of {@link ExpenseVersion}, empty if the user's expenses were never written
+	 */
+	Optional<ExpenseVersion> readExpenseVersion(String userId);
+
+	/**
+	 * Reads a user's spending totals per category from the precomputed rollups
+	 * @param userId {@link String} id of the user
+	 * @param startDate {@link LocalDate} the first day of the range
+	 * @param endDate {@link LocalDate} the last day of the range, inclusive
+	 * @return {@link List} of {@link SpendingSummaryDTO} with one entry per category, without min and max
+	 */
+	List<SpendingSummaryDTO> readSpendingTotals(String userId, LocalDate startDate, LocalDate endDate);
+
+	/**
+	 * Reads a user's spending totals per day or month from the precomputed rollups
+	 * @param userId {@link String} id of the user
+	 * @param granularity {@link ExpenseRollup.Granularity} the size of the periods
+	 * @param startDate {@link LocalDate} the first day of the range
+	 * @param endDate {@link LocalDate} the last day of the range, inclusive
+	 * @return {@link List} of {@link SpendingSummaryDTO} with one entry per period, without min and max
+	 */
+	List<SpendingSummaryDTO> readSpendingTrend(String userId, ExpenseRollup.Granularity granularity, LocalDate startDate, LocalDate endDate);
+
+	/**
+	 * Recomputes a user's spending rollups from its expenses
+	 * @param userId {@link String} id of the user
+	 * @return {@code long} the number of expenses the rollups were rebuilt from
+	 */
+	long rebuildRollups(String userId);
+
+	/**
+	 * Summarizes spending per user for expenses dated within a range
+	 * @param startDate {@link LocalDateTime} inclusive start of the date range
+	 * @param endDate {@link LocalDateTime} exclusive end of the date range
+	 * @return {@link List} of {@link SpendingSummaryDTO} with one entry per user, highest total first
+	 */
+	List<SpendingSummaryDTO> summarizeByUser(LocalDateTime startDate, LocalDateTime endDate);
 }
- 
\ No newline at end of file
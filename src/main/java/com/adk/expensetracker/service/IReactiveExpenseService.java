@@ -0,0 +1,129 @@
+package com.adk.expensetracker.service;
+
+import java.time.LocalDateTime;
+
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.dto.SummaryPeriod;
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link IExpenseService} used when the application runs on the reactive stack
+ */
+public interface IReactiveExpenseService {
+
+	/**
+	 * Creates a new expense
+	 * @param userId {@link String} the id of the user the expense belongs to
+	 * @param expense {@link Expense} the new expense to save
+	 * @return {@link Mono} of {@link Expense} the saved expense
+	 */
+	Mono<Expense> createExpense(String userId, Expense expense);
+
+	/**
+	 * Reads/retrieves an expense by its id
+	 * @param expenseId {@link String} id of the expense
+	 * @return {@link Mono} of {@link Expense} the found expense
+	 */
+	Mono<Expense> readExpense(String expenseId);
+
+	/**
+	 * Reads all expenses for a user id ordered by date then id (newest first), emitted as they are read from the database
+	 * @param userId {@link String} id of the user attached to the expense
+	 * @return {@link Flux} of {@link Expense} that have the user id, errors if the user has no expenses
+	 */
+	Flux<Expense> readExpensesForUser(String userId);
+
+	/**
+	 * Streams all expenses for a user id ordered by date then id (newest first), emitted as they are read from the database
+	 * @param userId {@link String} id of the user attached to the expense
+	 * @return {@link Flux} of {@link Expense} that have the user id, empty if the user has no expenses
+	 */
+	Flux<Expense> streamExpensesForUser(String userId);
+
+	/**
+	 * Reads a single page of expenses for a user id ordered by date then id (newest first)
+	 * @param userId {@link String} id of the user attached to the expense
+	 * @param cursor {@link String} the opaque cursor of the last expense on the previous page, {@code null} for the first page
+	 * @param size {@code int} the maximum number of expenses in the page
+	 * @return {@link Flux} of {@link Expense} with at most size expenses
+	 */
+	Flux<Expense> readExpensePageForUser(String userId, String cursor, int size);
+
+	/**
+	 * Reads all expenses for a user id with a date between two dates
+	 * @param startDate {@link LocalDateTime} the start date
+	 * @param endDate {@link LocalDateTime} the end date
+	 * @param userId {@link String} id of the user attached to the expense
+	 * @return {@link Flux} of {@link Expense} that have the user id and a date between the dates
+	 */
+	Flux<Expense> readExpensesWithDateRange(LocalDateTime startDate, LocalDateTime endDate, String userId);
+
+	/**
+	 * Reads all expenses for a user id in a category
+	 * @param userId {@link String} id of the user attached to the expense
+	 * @param categoryName {@link String} the name of the category
+	 * @return {@link Flux} of {@link Expense} that have the user id and category
+	 */
+	Flux<Expense> readExpenseForUserByCategory(String userId, String categoryName);
+
+	/**
+	 * Updates an expense
+	 * @param expenseId {@link String} id of the expense
+	 * @param expense {@link Expense} the updated expense, its userId is ignored and may be left out since an expense always
+	 * 			stays with its owner
+	 * @return {@link Mono} of {@link Expense} the saved expense
+	 */
+	Mono<Expense> updateExpense(String expenseId, Expense expense);
+
+	/**
+	 * Deletes an expense
+	 * @param expenseId {@link String} id of the expense
+	 * @return {@link Mono} of {@link Expense} the deleted expense
+	 */
+	Mono<Expense> deleteExpense(String expenseId);
+
+	/**
+	 * Finds a category by its name, creating it if it doesn't exist
+	 * @param category {@link Category} the category
+	 * @return {@link Mono} of {@link Category} the stored category
+	 */
+	Mono<Category> checkAndAddCategory(Category category);
+
+	/**
+	 * Creates a category
+	 * @param categoryName {@link String} the name of the category
+	 * @return {@link Mono} of {@link Category} the stored category
+	 */
+	Mono<Category> createCategory(String categoryName);
+
+	/**
+	 * Summarizes a user's spending per category for expenses dated within a range
+	 * @param userId {@link String} id of the user
+	 * @param startDate {@link LocalDateTime} inclusive start of the range
+	 * @param endDate {@link LocalDateTime} exclusive end of the range
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} one per category
+	 */
+	Flux<SpendingSummaryDTO> summarizeByCategory(String userId, LocalDateTime startDate, LocalDateTime endDate);
+
+	/**
+	 * Summarizes a user's spending per period for expenses dated within a range
+	 * @param userId {@link String} id of the user
+	 * @param period {@link SummaryPeriod} the period expenses are grouped into
+	 * @param startDate {@link LocalDateTime} inclusive start of the range
+	 * @param endDate {@link LocalDateTime} exclusive end of the range
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} one per period with expenses
+	 */
+	Flux<SpendingSummaryDTO> summarizeByPeriod(String userId, SummaryPeriod period, LocalDateTime startDate, LocalDateTime endDate);
+
+	/**
+	 * Summarizes spending per user for expenses dated within a range
+	 * @param startDate {@link LocalDateTime} inclusive start of the range
+	 * @param endDate {@link LocalDateTime} exclusive end of the range
+	 * @return {@link Flux} of {@link SpendingSummaryDTO} one per user, highest total first
+	 */
+	Flux<SpendingSummaryDTO> summarizeByUser(LocalDateTime startDate, LocalDateTime endDate);
+}
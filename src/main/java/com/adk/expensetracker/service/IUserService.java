@@ -27,6 +27,14 @@ public interface IUserService {
 	 */
 	User readUser(String userId);
 
+	/**
+	 * Verifies a user exists without loading it. Free when the request is authenticated as that user,
+	 * otherwise answered from a cache of known user ids or an existence query
+	 * @param userId {@link String} id of the user
+	 * @throws com.adk.expensetracker.errorhandling.EntityNotFoundException if the user doesn't exist
+	 */
+	void verifyUserExists(String userId);
+
 	/**
 	 * Updates a user with the given ID with the passed in information
 	 * @param userId {@link String} id of the user
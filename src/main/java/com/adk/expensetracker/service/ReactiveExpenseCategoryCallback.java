@@ -0,0 +1,59 @@
+package com.adk.expensetracker.service;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.repo.reactive.ReactiveCategoryRepo;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link ExpenseCategoryCallback}, categories missing from the {@link CategoryCache}
+ * are read through the reactive repo so resolving them never blocks an event loop thread
+ */
+@Component
+public class ReactiveExpenseCategoryCallback implements ReactiveBeforeConvertCallback<Expense>, ReactiveAfterConvertCallback<Expense> {
+
+	// resolved lazily as the cache and repo depend on the template that depends on these callbacks
+	private final ObjectProvider<CategoryCache> categoryCache;
+	private final ObjectProvider<ReactiveCategoryRepo> categoryRepo;
+
+	public ReactiveExpenseCategoryCallback(ObjectProvider<CategoryCache> categoryCache, ObjectProvider<ReactiveCategoryRepo> categoryRepo) {
+		this.categoryCache = categoryCache;
+		this.categoryRepo = categoryRepo;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Mono<Expense> onBeforeConvert(Expense expense, String collection) {
+		expense.setCategoryName(expense.getCategory() == null ? null : expense.getCategory().getName());
+		return Mono.just(expense);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Mono<Expense> onAfterConvert(Expense expense, Document document, String collection) {
+		String reference = expense.getCategoryName();
+		if(reference == null)
+			return Mono.just(expense);
+		CategoryCache cache = categoryCache.getObject();
+		Category cached = cache.findCachedByName(reference).or(() -> cache.findCachedById(reference)).orElse(null);
+		if(cached != null) {
+			expense.setCategory(cached);
+			return Mono.just(expense);
+		}
+		ReactiveCategoryRepo repo = categoryRepo.getObject();
+		return repo.findByName(reference)
+				.switchIfEmpty(Mono.defer(() -> repo.findById(reference)))
+				.map(cache::put)
+				.doOnNext(expense::setCategory)
+				.thenReturn(expense);
+	}
+}
@@ -0,0 +1,273 @@
+package com.adk.expensetracker.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Service;
+
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.dto.SummaryPeriod;
+import com.adk.expensetracker.errorhandling.EntityNotFoundException;
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.User;
+import com.adk.expensetracker.repo.reactive.ReactiveCategoryRepo;
+import com.adk.expensetracker.repo.reactive.ReactiveExpenseRepo;
+import com.adk.expensetracker.repo.reactive.ReactiveUserRepo;
+import com.adk.expensetracker.security.AuthenticatedUser;
+import com.adk.expensetracker.util.ExpenseCursor;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Implementation of {@link IReactiveExpenseService}
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExpenseService implements IReactiveExpenseService {
+
+	@Autowired
+	ReactiveExpenseRepo expenseRepo;
+
+	@Autowired
+	ReactiveUserRepo userRepo;
+
+	@Autowired
+	ReactiveCategoryRepo categoryRepo;
+
+	@Autowired
+	CategoryCache categoryCache;
+
+	@Autowired
+	ExpenseRollupService rollupService;
+
+	@Autowired
+	ExpenseVersionService versionService;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Mono<Expense> createExpense(String userId, Expense expense) {
+		return verifyUserExists(userId).then(Mono.defer(() -> {
+			expense.setUserId(userId);
+			expense.checkRequiredFields();
+			return withStoredCategory(expense);
+		})).flatMap(this::saveWithSyncVersion)
+				.flatMap(saved -> afterWrite(() -> {
+					rollupService.add(List.of(saved));
+					versionService.bump(userId);
+				}).thenReturn(saved));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Mono<Expense> readExpense(String expenseId) {
+		return expenseRepo.findById(expenseId)
+				.filter(expense -> !expense.isDeleted())
+				.switchIfEmpty(Mono.error(() -> new EntityNotFoundException(Expense.class, "id", expenseId)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flux<Expense> readExpensesForUser(String userId) {
+		return verifyUserExists(userId).thenMany(expenseRepo.findByUserId(userId)
+				.switchIfEmpty(Flux.error(() -> new EntityNotFoundException(Expense.class, "user.id", userId))));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flux<Expense> streamExpensesForUser(String userId) {
+		return verifyUserExists(userId).thenMany(expenseRepo.findByUserId(userId));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flux<Expense> readExpensePageForUser(String userId, String cursor, int size) {
+		PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(size, ExpenseService.MAX_PAGE_SIZE)));
+		return verifyUserExists(userId).thenMany(Flux.defer(() -> {
+			if(cursor == null || cursor.isBlank())
+				return expenseRepo.findPageByUserId(userId, pageRequest);
+			ExpenseCursor expenseCursor = ExpenseCursor.decode(cursor);
+			return expenseRepo.findPageByUserIdAfter(userId, expenseCursor.getDate(), expenseCursor.getId(), pageRequest);
+		}));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flux<Expense> readExpensesWithDateRange(LocalDateTime startDate, LocalDateTime endDate, String userId) {
+		return verifyUserExists(userId).thenMany(expenseRepo.findByUserIdAndBetweenTwoDates(userId, startDate, endDate));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flux<Expense> readExpenseForUserByCategory(String userId, String categoryName) {
+		return verifyUserExists(userId).thenMany(expenseRepo.findByUserIdAndCategoryName(userId, categoryName));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Mono<Expense> updateExpense(String expenseId, Expense expense) {
+		return readExpense(expenseId)
+				.flatMap(foundExpense -> {
+					expense.setId(foundExpense.getId());
+					// an expense always stays with its owner, the body's userId is ignored
+					expense.setUserId(foundExpense.getUserId());
+					expense.checkRequiredFields();
+					expense.setDeleted(false);
+					expense.setDeletedAt(null);
+					return withStoredCategory(expense)
+							.flatMap(this::saveWithSyncVersion)
+							.flatMap(saved -> afterWrite(() -> {
+								rollupService.remove(List.of(foundExpense));
+								rollupService.add(List.of(saved));
+								versionService.bump(saved.getUserId());
+							}).thenReturn(saved));
+				});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Mono<Expense> deleteExpense(String expenseId) {
+		// kept as a tombstone so the deletion reaches syncing clients, the TTL index on deletedAt removes it later
+		return readExpense(expenseId).flatMap(expense -> Mono.fromCallable(() -> {
+					Expense tombstone = new Expense();
+					tombstone.setId(expense.getId());
+					tombstone.setUserId(expense.getUserId());
+					tombstone.setDeleted(true);
+					tombstone.setDeletedAt(LocalDateTime.now());
+					return tombstone;
+				})
+				.flatMap(this::saveWithSyncVersion)
+				.then(afterWrite(() -> {
+					rollupService.remove(List.of(expense));
+					versionService.bump(expense.getUserId());
+				}))
+				.thenReturn(expense));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Mono<Category> checkAndAddCategory(Category category) {
+		return categoryCache.findCachedByName(category.getName())
+				.map(Mono::just)
+				.orElseGet(() -> categoryRepo.findByName(category.getName())
+						.switchIfEmpty(Mono.defer(() -> categoryRepo.save(category)))
+						.map(categoryCache::put));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Mono<Category> createCategory(String categoryName) {
+		categoryCache.invalidate(categoryName);
+		Category category = new Category();
+		category.setName(categoryName);
+		return checkAndAddCategory(category);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flux<SpendingSummaryDTO> summarizeByCategory(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+		return verifyUserExists(userId).thenMany(expenseRepo.summarizeByCategory(userId, startDate, endDate));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flux<SpendingSummaryDTO> summarizeByPeriod(String userId, SummaryPeriod period, LocalDateTime startDate, LocalDateTime endDate) {
+		return verifyUserExists(userId).thenMany(expenseRepo.summarizeByPeriod(userId, startDate, endDate, period.getUnit(), ZoneId.systemDefault().getId()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flux<SpendingSummaryDTO> summarizeByUser(LocalDateTime startDate, LocalDateTime endDate) {
+		return expenseRepo.summarizeByUser(startDate, endDate);
+	}
+
+	/**
+	 * Checks that a user exists without loading it, without any query when the request is authenticated as that user
+	 * @param userId {@link String} id of the user
+	 * @return {@link Mono} that completes empty if the user exists and errors with {@link EntityNotFoundException} otherwise
+	 */
+	private Mono<Void> verifyUserExists(String userId) {
+		return ReactiveSecurityContextHolder.getContext()
+				.map(SecurityContext::getAuthentication)
+				.filter(authentication -> authentication.getPrincipal() instanceof AuthenticatedUser user && userId.equals(user.getUserId()))
+				.hasElement()
+				.flatMap(authenticated -> authenticated ? Mono.just(true) : userRepo.existsById(userId))
+				.flatMap(exists -> exists ? Mono.<Void>empty() : Mono.error(new EntityNotFoundException(User.class, "id", userId)));
+	}
+
+	/**
+	 * Updates the spending rollups and expense versions, which are maintained through the blocking driver, off the event loop
+	 * @param update {@link Runnable} the update
+	 * @return {@link Mono} that completes once the update ran
+	 */
+	private Mono<Void> afterWrite(Runnable update) {
+		return Mono.fromRunnable(update).subscribeOn(Schedulers.boundedElastic()).then();
+	}
+
+	/**
+	 * Saves an expense stamped with the next sync version of its user, releasing the version once the save finished,
+	 * failed or was cancelled
+	 * @param expense {@link Expense} the expense
+	 * @return {@link Mono} of {@link Expense} the saved expense
+	 */
+	private Mono<Expense> saveWithSyncVersion(Expense expense) {
+		return Mono.usingWhen(
+				Mono.fromCallable(() -> versionService.allocateSyncVersions(expense.getUserId(), 1)).subscribeOn(Schedulers.boundedElastic()),
+				syncVersions -> {
+					expense.setSyncVersion(syncVersions.last());
+					expense.setModifiedAt(LocalDateTime.now());
+					return expenseRepo.save(expense);
+				},
+				syncVersions -> afterWrite(() -> versionService.releaseSyncVersions(syncVersions)));
+	}
+
+	/**
+	 * Replaces an expense's category with the stored category of the same name, creating it if needed
+	 * @param expense {@link Expense} the expense
+	 * @return {@link Mono} of {@link Expense} the same expense
+	 */
+	private Mono<Expense> withStoredCategory(Expense expense) {
+		if(expense.getCategory() == null)
+			return Mono.just(expense);
+		return checkAndAddCategory(expense.getCategory()).map(category -> {
+			expense.setCategory(category);
+			return expense;
+		});
+	}
+}
@@ -0,0 +1,46 @@
+package com.adk.expensetracker.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Records the number of expenses each list query returns. Users are deliberately not a tag, as that would create
+ * a time series per user, instead results above a threshold are logged with the user they belong to
+ */
+@Slf4j
+@Component
+public class ResultSizeMetrics {
+
+	private final MeterRegistry meterRegistry;
+	private final int largeResultThreshold;
+
+	public ResultSizeMetrics(MeterRegistry meterRegistry, @Value("${expense.metrics.large-result-threshold:10000}") int largeResultThreshold) {
+		this.meterRegistry = meterRegistry;
+		this.largeResultThreshold = largeResultThreshold;
+	}
+
+	/**
+	 * Records the size of a query result
+	 * @param query {@link String} name of the query the result came from
+	 * @param userId {@link String} id of the user the result belongs to
+	 * @param results {@link Collection} the result
+	 * @return {@link Collection} the same result
+	 */
+	public <T extends Collection<?>> T record(String query, String userId, T results) {
+		int size = results == null ? 0 : results.size();
+		DistributionSummary.builder("expense.query.results")
+				.description("Number of expenses returned by a query")
+				.baseUnit("expenses")
+				.tag("query", query)
+				.register(meterRegistry)
+				.record(size);
+		if(size >= largeResultThreshold)
+			log.warn("Query {} returned {} expenses for user {}", query, size, userId);
+		return results;
+	}
+}
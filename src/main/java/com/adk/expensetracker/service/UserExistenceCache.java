@@ -0,0 +1,58 @@
+package com.adk.expensetracker.service;
+
+import com.adk.expensetracker.repo.UserRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Size bounded in-process cache of the ids of users known to exist.
+ * Expense reads only need to know the user exists, which {@link UserRepo#existsById} answers from the _id index
+ * without loading the user or its roles
+ */
+@Component
+public class UserExistenceCache {
+
+	private final UserRepo userRepo;
+	private final Cache<String, Boolean> knownUserIds;
+
+	public UserExistenceCache(UserRepo userRepo, @Value("${expense.known-users.ttl:5m}") Duration ttl,
+							  @Value("${expense.known-users.max-size:10000}") long maxSize) {
+		this.userRepo = userRepo;
+		this.knownUserIds = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).build();
+	}
+
+	/**
+	 * Checks whether a user exists, only querying the repo if the id isn't cached. Missing users are never cached
+	 * @param userId {@link String} id of the user
+	 * @return {@code true} if the user exists
+	 */
+	public boolean exists(String userId) {
+		if(knownUserIds.getIfPresent(userId) != null)
+			return true;
+		boolean exists = userRepo.existsById(userId);
+		if(exists)
+			knownUserIds.put(userId, Boolean.TRUE);
+		return exists;
+	}
+
+	/**
+	 * Records a user as existing, e.g. right after it was created
+	 * @param userId {@link String} id of the user
+	 */
+	public void put(String userId) {
+		knownUserIds.put(userId, Boolean.TRUE);
+	}
+
+	/**
+	 * Removes a user from the cache, must be called whenever a user is deleted
+	 * @param userId {@link String} id of the user
+	 */
+	public void evict(String userId) {
+		if(userId != null)
+			knownUserIds.invalidate(userId);
+	}
+}
@@ -9,7 +9,9 @@ import com.adk.expensetracker.dto.LoginDTO;
 import com.adk.expensetracker.dto.RegisterDTO;
 import com.adk.expensetracker.model.Role;
 import com.adk.expensetracker.repo.RoleRepo;
+import com.adk.expensetracker.security.AuthenticatedUser;
 import com.adk.expensetracker.security.JWTGenerator;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -30,6 +32,7 @@ import lombok.extern.slf4j.Slf4j;
  * Implementation of {@link IUserService}
  */
 @Service @RequiredArgsConstructor @Slf4j
+@Timed("user.service")
 public class UserService implements IUserService {
 	
 	private final UserRepo userRepo;
@@ -37,6 +40,8 @@ public class UserService implements IUserService {
 	private final RoleRepo roleRepo;
 	private final AuthenticationManager authenticationManager;
 	private final JWTGenerator jwtGenerator;
+	private final CustomUserDetailsService userDetailsService;
+	private final UserExistenceCache userExistenceCache;
 
 	/**
 	 * {@inheritDoc}
@@ -65,7 +70,9 @@ public class UserService implements IUserService {
 
 		mappedRegisterDTO.setPassword(passwordEncoder.encode(user.getPassword()));
 
-        return userRepo.save(mappedRegisterDTO);
+		User savedUser = userRepo.save(mappedRegisterDTO);
+		userExistenceCache.put(savedUser.getId());
+		return savedUser;
 	}
 
 	/**
@@ -79,6 +86,19 @@ public class UserService implements IUserService {
 		return user.get();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void verifyUserExists(String userId) {
+		// the token of the authenticated user was issued for this id, so no query is needed
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if(authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user && userId.equals(user.getUserId()))
+			return;
+		if(!userExistenceCache.exists(userId))
+			throw new EntityNotFoundException(User.class, "ID", userId);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -96,10 +116,14 @@ public class UserService implements IUserService {
 		if(foundUser.isEmpty())
 			throw new EntityNotFoundException(User.class, "id", userId);
 		User retrievedUser = foundUser.get();
+		String previousUsername = retrievedUser.getUsername();
 		retrievedUser.setUsername(user.getUsername());
 		retrievedUser.setPassword(passwordEncoder.encode(user.getPassword()));
 		retrievedUser.setEmail(user.getEmail());
-        return userRepo.save(retrievedUser);
+		User savedUser = userRepo.save(retrievedUser);
+		userDetailsService.evict(previousUsername);
+		userDetailsService.evict(savedUser.getUsername());
+        return savedUser;
 	}
 
 	/**
@@ -112,6 +136,8 @@ public class UserService implements IUserService {
 		if(foundUser.isEmpty())
 			throw new EntityNotFoundException(User.class, "id", userId);
 		userRepo.deleteById(userId);
+		userDetailsService.evict(foundUser.get().getUsername());
+		userExistenceCache.evict(userId);
 		return foundUser.get();
 	}
 
@@ -143,7 +169,9 @@ public class UserService implements IUserService {
 		List<Role> roles = returnedUser.getRoles();
 		roles.add(returnedRole.get());
 		returnedUser.setRoles(roles);
-		return userRepo.save(returnedUser);
+		User savedUser = userRepo.save(returnedUser);
+		userDetailsService.evict(savedUser.getUsername());
+		return savedUser;
 	}
 
 	/**
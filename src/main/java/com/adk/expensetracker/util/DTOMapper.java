@@ -1,14 +1,20 @@
 package com.adk.expensetracker.util;
 
+import com.adk.expensetracker.dto.CompactExpenseListDTO;
+import com.adk.expensetracker.dto.ExpenseChangesDTO;
 import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.dto.ExpenseListItem;
+import com.adk.expensetracker.dto.ExpensePageDTO;
 import com.adk.expensetracker.dto.UserDTO;
 import com.adk.expensetracker.model.Category;
 import com.adk.expensetracker.model.Expense;
 import com.adk.expensetracker.model.User;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class used to Map Data base objects to their DTO counterpart
@@ -33,7 +39,7 @@ public class DTOMapper {
      */
     public static ExpenseDTO mapToExpenseDTO(Expense expense){
         return new ExpenseDTO(expense.getId(), expense.getShortDescription(), expense.getFullDescription(),
-                expense.getAmount(), expense.getDate(), expense.getCategory(), expense.getUser().getId());
+                expense.getAmount(), expense.getDate(), expense.getCategory(), expense.getUserId());
     }
 
     /**
@@ -46,4 +52,74 @@ public class DTOMapper {
         expenses.forEach( expense -> expenseDTOS.add(mapToExpenseDTO(expense)));
         return expenseDTOS;
     }
+
+    /**
+     * Maps a page of expenses to an Expense Page DTO containing the cursor of the next page
+     * @param expenses {@link List} of {@link Expense} expenses of the page
+     * @param pageSize {@code int} the requested size of the page
+     * @return {@link ExpensePageDTO} the mapped page where next cursor is {@code null} if no more expenses can follow
+     */
+    public static ExpensePageDTO mapToExpensePageDTO(List<Expense> expenses, int pageSize){
+        String nextCursor = null;
+        if(!expenses.isEmpty() && expenses.size() >= pageSize)
+            nextCursor = ExpenseCursor.encode(expenses.get(expenses.size() - 1));
+        return new ExpensePageDTO(mapToExpenseDTO(expenses), nextCursor);
+    }
+
+    /**
+     * Maps the changes of a user's expenses to an Expense Changes DTO, deleted expenses are reduced to their ids
+     * @param changes {@link List} of {@link Expense} changed and deleted expenses ordered by sync version
+     * @param since {@code long} the sync version the changes were read after
+     * @param committed {@code long} the committed sync version the changes were read up to
+     * @param pageSize {@code int} the requested maximum number of changes
+     * @return {@link ExpenseChangesDTO} the mapped changes where version is the last sync version they contain while more
+     *          follow, and the committed sync version once the client is caught up
+     */
+    public static ExpenseChangesDTO mapToExpenseChangesDTO(List<Expense> changes, long since, long committed, int pageSize){
+        ExpenseChangesDTO changesDTO = new ExpenseChangesDTO(new ArrayList<>(), new ArrayList<>(), since,
+                !changes.isEmpty() && changes.size() >= pageSize);
+        for(Expense expense : changes) {
+            if(expense.isDeleted())
+                changesDTO.getDeleted().add(expense.getId());
+            else
+                changesDTO.getChanged().add(mapToExpenseDTO(expense));
+            changesDTO.setVersion(expense.getSyncVersion());
+        }
+        // every version up to the committed one was seen, versions skipped by updates and failed writes never show up
+        if(!changesDTO.isHasMore())
+            changesDTO.setVersion(Math.max(changesDTO.getVersion(), committed));
+        return changesDTO;
+    }
+
+    /**
+     * Maps a list of a user's expenses to the compact, column by column, shape
+     * @param userId {@link String} the id of the user every expense belongs to
+     * @param expenses {@link List} of {@link ExpenseListItem} the expenses in either view
+     * @param includeFullDescription {@code boolean} whether the full description column is sent
+     * @return {@link CompactExpenseListDTO} the mapped expenses
+     */
+    public static CompactExpenseListDTO mapToCompactExpenseListDTO(String userId, List<? extends ExpenseListItem> expenses, boolean includeFullDescription){
+        int size = expenses.size();
+        CompactExpenseListDTO compact = new CompactExpenseListDTO(userId, new ArrayList<>(), new ArrayList<>(size), new ArrayList<>(size),
+                includeFullDescription ? new ArrayList<>(size) : null, new ArrayList<>(size), new ArrayList<>(size), new ArrayList<>(size));
+        Map<String, Integer> categoryIndexes = new HashMap<>();
+        for(ExpenseListItem expense : expenses) {
+            compact.getId().add(expense.getId());
+            compact.getShortDescription().add(expense.getShortDescription());
+            if(includeFullDescription)
+                compact.getFullDescription().add(expense instanceof ExpenseDTO dto ? dto.getFullDescription() : null);
+            compact.getAmount().add(expense.getAmount());
+            compact.getDate().add(expense.getDate());
+            Category category = expense.getCategory();
+            if(category == null || category.getName() == null) {
+                compact.getCategory().add(null);
+                continue;
+            }
+            compact.getCategory().add(categoryIndexes.computeIfAbsent(category.getName(), name -> {
+                compact.getCategories().add(category);
+                return compact.getCategories().size() - 1;
+            }));
+        }
+        return compact;
+    }
 }
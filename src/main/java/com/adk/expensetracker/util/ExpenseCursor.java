@@ -0,0 +1,52 @@
+package com.adk.expensetracker.util;
+
+import com.adk.expensetracker.errorhandling.InvalidCursorException;
+import com.adk.expensetracker.model.Expense;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position inside of a user's expenses ordered by date then id (newest first).
+ * Clients only ever see the opaque encoded form of the cursor
+ */
+@Getter
+@AllArgsConstructor
+public class ExpenseCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime date;
+    private final ObjectId id;
+
+    /**
+     * Creates the cursor pointing at the passed in expense
+     * @param expense {@link Expense} the last expense of a page
+     * @return {@link String} the opaque cursor
+     */
+    public static String encode(Expense expense) {
+        String raw = expense.getDate().toString() + SEPARATOR + expense.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an opaque cursor
+     * @param cursor {@link String} the cursor that was previously returned to the client
+     * @return {@link ExpenseCursor} the decoded keyset position
+     * @throws InvalidCursorException if the cursor can't be decoded
+     */
+    public static ExpenseCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            return new ExpenseCursor(LocalDateTime.parse(raw.substring(0, separatorIndex)),
+                    new ObjectId(raw.substring(separatorIndex + 1)));
+        } catch (RuntimeException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
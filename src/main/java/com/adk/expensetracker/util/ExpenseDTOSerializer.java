@@ -0,0 +1,119 @@
+package com.adk.expensetracker.util;
+
+import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.model.Category;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand written serializer of {@link ExpenseDTO}, the DTO of every expense list response. Field names are pre-encoded
+ * and dates are formatted straight into a char buffer instead of through a {@link DateTimeFormatter}, producing the same
+ * JSON as Jackson's reflective bean serializer with Spring Boot's defaults (nulls included, ISO-8601 local date times)
+ */
+public class ExpenseDTOSerializer extends StdSerializer<ExpenseDTO> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString SHORT_DESCRIPTION = new SerializedString("shortDescription");
+    private static final SerializedString FULL_DESCRIPTION = new SerializedString("fullDescription");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString DATE = new SerializedString("date");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString USER_ID = new SerializedString("userId");
+    // yyyy-MM-ddTHH:mm:ss.SSSSSSSSS
+    private static final int MAX_DATE_LENGTH = 29;
+
+    public ExpenseDTOSerializer() {
+        super(ExpenseDTO.class);
+    }
+
+    @Override
+    public void serialize(ExpenseDTO expense, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(expense);
+        generator.writeFieldName(ID);
+        generator.writeString(expense.getId());
+        generator.writeFieldName(SHORT_DESCRIPTION);
+        generator.writeString(expense.getShortDescription());
+        generator.writeFieldName(FULL_DESCRIPTION);
+        generator.writeString(expense.getFullDescription());
+        generator.writeFieldName(AMOUNT);
+        if (expense.getAmount() == null)
+            generator.writeNull();
+        else
+            generator.writeNumber(expense.getAmount());
+        generator.writeFieldName(DATE);
+        // dates written as timestamps are left to the mapper's own date serializer
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS))
+            provider.defaultSerializeValue(expense.getDate(), generator);
+        else
+            writeDate(generator, expense.getDate());
+        generator.writeFieldName(CATEGORY);
+        writeCategory(generator, expense.getCategory());
+        generator.writeFieldName(USER_ID);
+        generator.writeString(expense.getUserId());
+        generator.writeEndObject();
+    }
+
+    private static void writeCategory(JsonGenerator generator, Category category) throws IOException {
+        if (category == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject(category);
+        generator.writeFieldName(ID);
+        generator.writeString(category.getId());
+        generator.writeFieldName(NAME);
+        generator.writeString(category.getName());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes a date the way {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} formats it, seconds always and the fraction
+     * without trailing zeros
+     */
+    private static void writeDate(JsonGenerator generator, LocalDateTime date) throws IOException {
+        if (date == null) {
+            generator.writeNull();
+            return;
+        }
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            generator.writeString(date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] buffer = new char[MAX_DATE_LENGTH];
+        writeDigits(buffer, 0, date.getYear(), 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, date.getMonthValue(), 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, date.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, date.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, date.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, date.getSecond(), 2);
+        int length = 19;
+        if (date.getNano() > 0) {
+            buffer[19] = '.';
+            writeDigits(buffer, 20, date.getNano(), 9);
+            length = MAX_DATE_LENGTH;
+            while (buffer[length - 1] == '0')
+                length--;
+        }
+        generator.writeString(buffer, 0, length);
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
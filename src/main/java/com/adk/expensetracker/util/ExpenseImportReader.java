@@ -0,0 +1,238 @@
+package com.adk.expensetracker.util;
+
+import com.adk.expensetracker.errorhandling.MalformedImportException;
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads expenses one at a time from a bulk import body so imports of any size never have to be held in memory.
+ * Supports a JSON array, newline delimited JSON and CSV with a header row of
+ * {@code shortDescription,fullDescription,amount,date,category}
+ */
+public class ExpenseImportReader implements Iterator<ExpenseImportReader.Row>, Closeable {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final List<String> CSV_COLUMNS = List.of("shortdescription", "fulldescription", "amount", "date", "category");
+
+    private final Closeable source;
+    private final MappingIterator<Expense> jsonRows;
+    private final BufferedReader csvReader;
+    private final Map<String, Integer> csvColumns;
+    private int rowNumber;
+    private Row next;
+
+    private ExpenseImportReader(InputStream inputStream, MediaType contentType, ObjectMapper objectMapper) throws IOException {
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            this.csvReader = new BufferedReader(new InputStreamReader(inputStream, contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset()));
+            this.csvColumns = readCsvHeader(csvReader);
+            this.jsonRows = null;
+            this.source = csvReader;
+        } else {
+            // handles both a root level array and a sequence of values separated by new lines
+            this.jsonRows = objectMapper.readerFor(Expense.class).readValues(inputStream);
+            this.csvReader = null;
+            this.csvColumns = null;
+            this.source = jsonRows;
+        }
+    }
+
+    /**
+     * Opens a reader over a bulk import body
+     * @param inputStream {@link InputStream} the request body
+     * @param contentType {@link MediaType} the content type of the body, JSON, NDJSON or CSV
+     * @param objectMapper {@link ObjectMapper} mapper used to read JSON rows
+     * @return {@link ExpenseImportReader} the reader
+     * @throws MalformedImportException if the body can't be read
+     */
+    public static ExpenseImportReader open(InputStream inputStream, MediaType contentType, ObjectMapper objectMapper) {
+        try {
+            return new ExpenseImportReader(inputStream, contentType, objectMapper);
+        } catch (IOException e) {
+            throw new MalformedImportException("Unable to read the import: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null)
+            next = readRow();
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private Row readRow() {
+        try {
+            return jsonRows != null ? readJsonRow() : readCsvRow();
+        } catch (IOException e) {
+            throw new MalformedImportException("Unable to read the import after row " + rowNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Row readJsonRow() throws IOException {
+        try {
+            if (!jsonRows.hasNextValue())
+                return null;
+            rowNumber++;
+            Expense expense = jsonRows.nextValue();
+            // a null element reads as no expense at all, reported like any other invalid row
+            return expense == null ? new Row(rowNumber, null, "row is empty") : new Row(rowNumber, expense, null);
+        } catch (JsonParseException e) {
+            // broken syntax leaves no reliable way to find where the next row starts
+            throw e;
+        } catch (JsonMappingException e) {
+            // the iterator skips past the rest of the value so the following rows are still read
+            rowNumber++;
+            return new Row(rowNumber, null, e.getOriginalMessage());
+        }
+    }
+
+    private Row readCsvRow() throws IOException {
+        List<String> values = readCsvRecord(csvReader);
+        while (values != null && values.size() == 1 && values.get(0).isBlank())
+            values = readCsvRecord(csvReader);
+        if (values == null)
+            return null;
+        rowNumber++;
+        try {
+            return new Row(rowNumber, toExpense(values), null);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return new Row(rowNumber, null, e.getMessage());
+        }
+    }
+
+    private Expense toExpense(List<String> values) {
+        Expense expense = new Expense();
+        expense.setShortDescription(textColumn(values, "shortdescription"));
+        expense.setFullDescription(textColumn(values, "fulldescription"));
+        String amount = column(values, "amount");
+        expense.setAmount(amount == null ? null : Double.valueOf(amount));
+        String date = column(values, "date");
+        if (date != null)
+            expense.setDate(date.length() == 10 ? LocalDate.parse(date).atStartOfDay() : LocalDateTime.parse(date));
+        String category = textColumn(values, "category");
+        if (category != null) {
+            expense.setCategory(new Category());
+            expense.getCategory().setName(category);
+        }
+        return expense;
+    }
+
+    /**
+     * Reads a text column, dropping the single quote {@link ExpenseStreamWriter} puts in front of text starting with
+     * a formula character or a quote. A hand written value such as {@code '=x} is read as {@code =x} the same way
+     */
+    private String textColumn(List<String> values, String name) {
+        String value = column(values, name);
+        if (value != null && value.length() > 1 && value.charAt(0) == '\''
+                && ExpenseStreamWriter.ESCAPED_PREFIXES.indexOf(value.charAt(1)) >= 0)
+            return value.substring(1);
+        return value;
+    }
+
+    private String column(List<String> values, String name) {
+        Integer index = csvColumns.get(name);
+        if (index == null || index >= values.size())
+            return null;
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null)
+            throw new MalformedImportException("The CSV import is empty, a header row is required");
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++)
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        if (columns.keySet().stream().noneMatch(CSV_COLUMNS::contains))
+            throw new MalformedImportException("The CSV header must name the columns " + String.join(",", CSV_COLUMNS));
+        return columns;
+    }
+
+    /**
+     * Reads one RFC 4180 record, quoted values may contain commas, escaped quotes and line breaks
+     * @return {@link List} of {@link String} the values of the record, {@code null} at the end of the input
+     */
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null)
+            return null;
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            if (!quoted)
+                break;
+            line = reader.readLine();
+            if (line == null)
+                throw new MalformedImportException("The CSV import ends inside a quoted value");
+            value.append('\n');
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * A row of the import, either a parsed expense or the reason it couldn't be parsed
+     * @param number position of the row in the import starting from 1
+     * @param expense the parsed expense, {@code null} if the row couldn't be parsed
+     * @param error why the row couldn't be parsed, {@code null} if it was parsed
+     */
+    public record Row(int number, Expense expense, String error) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.adk.expensetracker.util;
+
+import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.model.Expense;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Utility class used to write expenses straight from a database cursor to an output stream
+ * so that the full result never has to be held in memory
+ */
+public class ExpenseStreamWriter {
+
+    private static final String CSV_HEADER = "id,shortDescription,fullDescription,amount,date,category,userId\n";
+    // leading characters spreadsheets evaluate as a formula, plus the escaping quote itself so that a text cell
+    // already starting with a quote is escaped too and the import can always drop exactly one
+    static final String ESCAPED_PREFIXES = "=+-@\t\r'";
+    // flushing hands a chunk to the client, every expense would send tiny chunks and defeat response compression
+    private static final int FLUSH_INTERVAL = 1000;
+
+    /**
+     * Writes expenses as newline delimited JSON (one ExpenseDTO per line)
+     * @param expenses {@link Stream} of {@link Expense} the expenses to write, closed once written
+     * @param outputStream {@link OutputStream} the stream to write to
+     * @param objectMapper {@link ObjectMapper} mapper used to serialize each expense
+     * @throws IOException if unable to write to the output stream
+     */
+    public static void writeNdjson(Stream<Expense> expenses, OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        write(expenses, writerFor(objectMapper).withRootValueSeparator("\n").writeValues(outputStream));
+        outputStream.write('\n');
+    }
+
+    /**
+     * Writes expenses as a single JSON array of ExpenseDTOs
+     * @param expenses {@link Stream} of {@link Expense} the expenses to write, closed once written
+     * @param outputStream {@link OutputStream} the stream to write to
+     * @param objectMapper {@link ObjectMapper} mapper used to serialize each expense
+     * @throws IOException if unable to write to the output stream
+     */
+    public static void writeJsonArray(Stream<Expense> expenses, OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        write(expenses, writerFor(objectMapper).writeValuesAsArray(outputStream));
+    }
+
+    /**
+     * Writes expenses as CSV with a header row, the category is written as its name. Text cells that a
+     * spreadsheet would evaluate as a formula are prefixed with a single quote (see {@link #writeCsvText})
+     * @param expenses {@link Stream} of {@link Expense} the expenses to write, closed once written
+     * @param outputStream {@link OutputStream} the stream to write to, flushed but not closed
+     * @throws IOException if unable to write to the output stream
+     */
+    public static void writeCsv(Stream<Expense> expenses, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try (expenses) {
+            writer.write(CSV_HEADER);
+            Iterator<Expense> iterator = expenses.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                Expense expense = iterator.next();
+                writeCsvValue(writer, expense.getId());
+                writer.write(',');
+                writeCsvText(writer, expense.getShortDescription());
+                writer.write(',');
+                writeCsvText(writer, expense.getFullDescription());
+                writer.write(',');
+                writeCsvValue(writer, expense.getAmount() == null ? null : expense.getAmount().toString());
+                writer.write(',');
+                writeCsvValue(writer, expense.getDate() == null ? null : expense.getDate().toString());
+                writer.write(',');
+                writeCsvText(writer, expense.getCategory() == null ? null : expense.getCategory().getName());
+                writer.write(',');
+                writeCsvValue(writer, expense.getUserId());
+                writer.write('\n');
+                if (++written % FLUSH_INTERVAL == 0)
+                    writer.flush();
+            }
+        } finally {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Writes a user supplied text value, prefixing it with a single quote when it starts with a character
+     * a spreadsheet treats as the start of a formula so an opened export can't run one (CSV injection).
+     * Values starting with a single quote are prefixed as well so {@link ExpenseImportReader} restores
+     * every value exactly
+     */
+    private static void writeCsvText(Writer writer, String value) throws IOException {
+        if (value != null && !value.isEmpty() && ESCAPED_PREFIXES.indexOf(value.charAt(0)) >= 0)
+            value = "'" + value;
+        writeCsvValue(writer, value);
+    }
+
+    /**
+     * Writes a single CSV value, quoting it only when it contains a separator, quote or line break
+     */
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null)
+            return;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static ObjectWriter writerFor(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(ExpenseDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private static void write(Stream<Expense> expenses, SequenceWriter sequenceWriter) throws IOException {
+        try (expenses; sequenceWriter) {
+            Iterator<Expense> iterator = expenses.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                sequenceWriter.write(DTOMapper.mapToExpenseDTO(iterator.next()));
+                if (++written % FLUSH_INTERVAL == 0)
+                    sequenceWriter.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.adk.expensetracker.benchmark;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sample data shared by the benchmarks
+ */
+final class BenchmarkData {
+
+	private static final String[] CATEGORY_NAMES = {"Home", "Loans", "Groceries", "Travel", "Utilities"};
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Creates a list of valid expenses belonging to a single user
+	 * @param size {@code int} the number of expenses
+	 * @return {@link List} of {@link Expense} the generated expenses
+	 */
+	static List<Expense> expenses(int size) {
+		String userId = new ObjectId().toHexString();
+		List<Category> categories = new ArrayList<>();
+		for(String name : CATEGORY_NAMES) {
+			Category category = new Category();
+			category.setId(new ObjectId().toHexString());
+			category.setName(name);
+			categories.add(category);
+		}
+		LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 30, 15, 703_000_000);
+		List<Expense> expenses = new ArrayList<>(size);
+		for(int i = 0; i < size; i++) {
+			Expense expense = new Expense();
+			expense.setId(new ObjectId().toHexString());
+			expense.setShortDescription("Bank Transfer" + i);
+			expense.setFullDescription("Bank Transfer to account ending in " + (1000 + i % 9000));
+			expense.setAmount(10.5 + i % 100);
+			expense.setDate(start.plusMinutes(i * 37L));
+			expense.setCategory(categories.get(i % categories.size()));
+			expense.setUserId(userId);
+			expenses.add(expense);
+		}
+		return expenses;
+	}
+}
@@ -0,0 +1,71 @@
+package com.adk.expensetracker.benchmark;
+
+import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.util.DTOMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of encoding an expense list response in each negotiable format and of a client decoding it into a tree.
+ * The payload size of every format is printed once per trial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+	@Param({"1000", "10000"})
+	private int size;
+
+	@Param({"json", "cbor", "smile"})
+	private String format;
+
+	private ObjectMapper objectMapper;
+	private List<ExpenseDTO> expenses;
+	private byte[] payload;
+
+	@Setup
+	public void setup() throws Exception {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		switch (format) {
+			case "cbor" -> builder.factory(new CBORFactory());
+			case "smile" -> builder.factory(new SmileFactory());
+			default -> { }
+		}
+		objectMapper = builder.build();
+		expenses = DTOMapper.mapToExpenseDTO(BenchmarkData.expenses(size));
+		payload = objectMapper.writeValueAsBytes(expenses);
+		System.out.printf("%n%s payload of %d expenses: %d bytes%n", format, size, payload.length);
+	}
+
+	@Benchmark
+	public byte[] encode() throws Exception {
+		return objectMapper.writeValueAsBytes(expenses);
+	}
+
+	@Benchmark
+	public JsonNode decode() throws Exception {
+		return objectMapper.readTree(payload);
+	}
+}
@@ -0,0 +1,46 @@
+package com.adk.expensetracker.benchmark;
+
+import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.util.DTOMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping a user's expenses to ExpenseDTOs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DTOMapperBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	private int size;
+
+	private List<Expense> expenses;
+
+	@Setup
+	public void setup() {
+		expenses = BenchmarkData.expenses(size);
+	}
+
+	@Benchmark
+	public List<ExpenseDTO> mapToExpenseDTO() {
+		return DTOMapper.mapToExpenseDTO(expenses);
+	}
+}
@@ -0,0 +1,70 @@
+package com.adk.expensetracker.benchmark;
+
+import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.util.DTOMapper;
+import com.adk.expensetracker.util.ExpenseDTOSerializer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing an expense list response straight to an output stream with a precomputed {@link ObjectWriter}.
+ * "reflective" is Jackson's bean serializer, "handWritten" is {@link ExpenseDTOSerializer}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseDTOSerializerBenchmark {
+
+	@Param({"10000", "100000"})
+	private int size;
+
+	@Param({"reflective", "handWritten"})
+	private String serializer;
+
+	private ObjectWriter writer;
+	private List<ExpenseDTO> expenses;
+	private final OutputStream outputStream = OutputStream.nullOutputStream();
+
+	@Setup
+	public void setup() {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		if(serializer.equals("reflective"))
+			builder.mixIn(ExpenseDTO.class, ReflectiveExpenseDTO.class);
+		writer = builder.build().writerFor(new TypeReference<List<ExpenseDTO>>() { });
+		expenses = DTOMapper.mapToExpenseDTO(BenchmarkData.expenses(size));
+	}
+
+	@Benchmark
+	public void writeList() throws Exception {
+		writer.writeValue(outputStream, expenses);
+	}
+
+	/**
+	 * Mix-in replacing the serializer declared on {@link ExpenseDTO} with Jackson's reflective bean serializer
+	 */
+	@JsonSerialize(using = JsonSerializer.None.class)
+	abstract static class ReflectiveExpenseDTO {
+	}
+}
@@ -0,0 +1,40 @@
+package com.adk.expensetracker.benchmark;
+
+import com.adk.expensetracker.model.Expense;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating the required fields of an expense
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseValidationBenchmark {
+
+	private Expense expense;
+
+	@Setup
+	public void setup() {
+		expense = BenchmarkData.expenses(1).get(0);
+	}
+
+	@Benchmark
+	public Expense checkRequiredFields() {
+		expense.checkRequiredFields();
+		return expense;
+	}
+}
@@ -0,0 +1,95 @@
+package com.adk.expensetracker.benchmark;
+
+import com.adk.expensetracker.security.JWTAuthenticationFilter;
+import com.adk.expensetracker.security.JWTGenerator;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link JWTAuthenticationFilter} authenticating a bearer token carrying its roles.
+ * "legacy" reproduces the previous validate-then-read path that built and ran two parsers per request,
+ * "singleParse" verifies once with the shared parser and "cached" also serves repeat tokens from the verified token cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+	@Param({"legacy", "singleParse", "cached"})
+	private String mode;
+
+	private JWTAuthenticationFilter filter;
+	private String token;
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+	private final FilterChain filterChain = (request, response) -> { };
+
+	@Setup
+	public void setup() {
+		JWTGenerator jwtGenerator = switch (mode) {
+			case "legacy" -> new LegacyJWTGenerator();
+			case "singleParse" -> new JWTGenerator(0, new SimpleMeterRegistry());
+			default -> new JWTGenerator(10_000, new SimpleMeterRegistry());
+		};
+		ReflectionTestUtils.setField(jwtGenerator, "rolesInClaims", true);
+		token = jwtGenerator.generateToken(new UsernamePasswordAuthenticationToken("user", null,
+				List.of(new SimpleGrantedAuthority("USER"))));
+		filter = new JWTAuthenticationFilter();
+		ReflectionTestUtils.setField(filter, "jwtGenerator", jwtGenerator);
+	}
+
+	@Benchmark
+	public Authentication authenticate() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Authorization", "Bearer " + token);
+		filter.doFilter(request, response, filterChain);
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		SecurityContextHolder.clearContext();
+		return authentication;
+	}
+
+	/**
+	 * Token verification as it was before the parser was shared, kept only as the benchmark baseline
+	 */
+	static class LegacyJWTGenerator extends JWTGenerator {
+
+		private final Key key = (Key) ReflectionTestUtils.getField(JWTGenerator.class, "key");
+
+		LegacyJWTGenerator() {
+			super(0, new SimpleMeterRegistry());
+		}
+
+		@Override
+		public Claims getClaimsFromJWT(String token) {
+			// validateToken and getUsernameFromJWT each built their own parser and verified the signature
+			Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+			return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.adk.expensetracker.benchmark;
+
+import com.adk.expensetracker.security.JWTGenerator;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing and verifying JWTs, verification is measured with the verified token cache disabled
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtGeneratorBenchmark {
+
+	private JWTGenerator jwtGenerator;
+	private Authentication authentication;
+	private String token;
+
+	@Setup
+	public void setup() {
+		jwtGenerator = new JWTGenerator(0, new SimpleMeterRegistry());
+		authentication = new UsernamePasswordAuthenticationToken("user", null, List.of(new SimpleGrantedAuthority("USER")));
+		token = jwtGenerator.generateToken(authentication);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return jwtGenerator.generateToken(authentication);
+	}
+
+	@Benchmark
+	public Claims verifyToken() {
+		return jwtGenerator.getClaimsFromJWT(token);
+	}
+}
@@ -0,0 +1,68 @@
+package com.adk.expensetracker.benchmark;
+
+import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.errorhandling.ApiError;
+import com.adk.expensetracker.errorhandling.EntityNotFoundException;
+import com.adk.expensetracker.model.User;
+import com.adk.expensetracker.util.DTOMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing responses to JSON with an ObjectMapper configured the way Spring Boot configures it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({"1000", "10000"})
+	private int size;
+
+	private ObjectMapper objectMapper;
+	private ExpenseDTO expense;
+	private List<ExpenseDTO> expenses;
+	private ApiError apiError;
+
+	@Setup
+	public void setup() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		expenses = DTOMapper.mapToExpenseDTO(BenchmarkData.expenses(size));
+		expense = expenses.get(0);
+		apiError = new ApiError(HttpStatus.NOT_FOUND, "User was not found",
+				new EntityNotFoundException(User.class, "id", "674560cbf5f7ca5c0e6720a"));
+	}
+
+	@Benchmark
+	public byte[] expenseDTO() throws Exception {
+		return objectMapper.writeValueAsBytes(expense);
+	}
+
+	@Benchmark
+	public byte[] expenseDTOList() throws Exception {
+		return objectMapper.writeValueAsBytes(expenses);
+	}
+
+	@Benchmark
+	public byte[] apiError() throws Exception {
+		return objectMapper.writeValueAsBytes(apiError);
+	}
+}
@@ -0,0 +1,35 @@
+package com.adk.expensetracker.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+/**
+ * Explains the repository query shapes against an embedded MongoDB so a missing index fails the build
+ */
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=7.0.14")
+@Import(MongoIndexInitializer.class)
+class MongoIndexInitializerTests {
+
+	@Autowired
+	private MongoIndexInitializer mongoIndexInitializer;
+
+	@Test
+	void queryShapesUseIndexes() {
+		mongoIndexInitializer.ensureIndexes();
+		assertEquals(List.of(), mongoIndexInitializer.findCollectionScans());
+	}
+
+	@Test
+	void unindexedQueryIsReportedAsCollectionScan() {
+		mongoIndexInitializer.ensureIndexes();
+		assertTrue(mongoIndexInitializer.usesCollectionScan("expense", new Document("shortDescription", "Bank Transfer1"), null));
+	}
+}
@@ -0,0 +1,68 @@
+package com.adk.expensetracker.dto;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.util.DTOMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the JSON of both expense list shapes in both views
+ */
+class ExpenseListShapeTests {
+
+	private static final String USER_ID = "6748299eceea026ca6ef5f0c";
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+	@Test
+	void summaryRowsLeaveOutFullDescription() throws Exception {
+		JsonNode rows = objectMapper.valueToTree(List.of(
+				new ExpenseSummaryDTO("6748368e9bf8ee5aaccf393a", "Rent", 1200.0, LocalDateTime.of(2024, 9, 1, 0, 0), null, USER_ID)));
+
+		assertFalse(rows.get(0).has("fullDescription"));
+		assertTrue(rows.get(0).has("shortDescription"));
+	}
+
+	@Test
+	void compactSummaryLeavesOutFullDescription() throws Exception {
+		JsonNode compact = objectMapper.valueToTree(DTOMapper.mapToCompactExpenseListDTO(USER_ID, List.of(
+				new ExpenseSummaryDTO("6748368e9bf8ee5aaccf393a", "Rent", 1200.0, LocalDateTime.of(2024, 9, 1, 0, 0), null, USER_ID)), false));
+
+		assertFalse(compact.has("fullDescription"));
+	}
+
+	@Test
+	void compactFullSendsEveryCategoryOnce() throws Exception {
+		Category home = category("6748299eceea026ca6ef5f0d", "Home");
+		Category food = category("6748299eceea026ca6ef5f0e", "Food");
+		LocalDateTime date = LocalDateTime.of(2024, 9, 10, 22, 56, 43);
+		JsonNode compact = objectMapper.valueToTree(DTOMapper.mapToCompactExpenseListDTO(USER_ID, List.of(
+				new ExpenseDTO("a", "Rent", "September rent", 1200.0, date, home, USER_ID),
+				new ExpenseDTO("b", "Lunch", "Lunch downtown", 12.5, date, food, USER_ID),
+				new ExpenseDTO("c", "Repairs", "Sink", 80.0, date, home, USER_ID),
+				new ExpenseDTO("d", "Misc", "No category", 1.0, date, null, USER_ID)), true));
+
+		assertEquals(USER_ID, compact.get("userId").asText());
+		assertEquals(2, compact.get("categories").size());
+		assertEquals("[0,1,0,null]", compact.get("category").toString());
+		assertEquals("[\"September rent\",\"Lunch downtown\",\"Sink\",\"No category\"]", compact.get("fullDescription").toString());
+	}
+
+	private static Category category(String id, String name) {
+		Category category = new Category();
+		category.setId(id);
+		category.setName(name);
+		return category;
+	}
+}
@@ -0,0 +1,107 @@
+package com.adk.expensetracker.load;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.Role;
+import com.adk.expensetracker.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Seeds an embedded MongoDB with generated users and expenses and measures the main endpoints of the running application.
+ * Excluded from the regular build, run with {@code mvn -Pload-test test} and size the run through {@link LoadTestSettings}
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "de.flapdoodle.mongodb.embedded.version=7.0.14")
+class ExpenseApiLoadTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	@Test
+	void measureEndpoints() throws Exception {
+		LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+		for(Class<?> type : List.of(Expense.class, Category.class, User.class, Role.class))
+			mongoTemplate.remove(new Query(), type);
+
+		long seedStart = System.nanoTime();
+		List<User> users = new LoadDataGenerator(mongoTemplate, passwordEncoder).seed(settings);
+		log.info("Seeded {} users with {} expenses each in {} ms", settings.users(), settings.expensesPerUser(),
+				(System.nanoTime() - seedStart) / 1_000_000);
+
+		try (LoadDriver driver = new LoadDriver("http://localhost:" + port, settings)) {
+			String[] tokens = new String[settings.activeUsers()];
+			for(int i = 0; i < tokens.length; i++)
+				tokens[i] = objectMapper.readTree(driver.send(driver.post("/user/login", null, login(users.get(i))))).get("accessToken").asText();
+
+			String rangeStart = settings.firstDate().toString();
+			String rangeEnd = LocalDateTime.now().toString();
+			String category = settings.categories().get(0);
+
+			driver.run("POST /user/login", i -> driver.post("/user/login", null, login(users.get(i % tokens.length))));
+			driver.run("POST /expense/create", i -> driver.post("/expense/create/" + users.get(i % tokens.length).getId(),
+					tokens[i % tokens.length], newExpense(i, category)));
+			driver.run("GET /expense/getByUserId", i -> driver.get("/expense/getByUserId/" + users.get(i % tokens.length).getId(), tokens[i % tokens.length]));
+			driver.run("GET /expense/getPastWeek", i -> driver.get("/expense/getPastWeek/" + users.get(i % tokens.length).getId(), tokens[i % tokens.length]));
+			driver.run("GET /expense/getPastMonth", i -> driver.get("/expense/getPastMonth/" + users.get(i % tokens.length).getId(), tokens[i % tokens.length]));
+			driver.run("GET /expense/getPastThreeMonths", i -> driver.get("/expense/getPastThreeMonths/" + users.get(i % tokens.length).getId(), tokens[i % tokens.length]));
+			driver.run("GET /expense/get (range)", i -> driver.get("/expense/get/" + users.get(i % tokens.length).getId() + "/" + rangeStart + "/" + rangeEnd,
+					tokens[i % tokens.length]));
+
+			log.info("Requests handled on {} threads{}", virtualThreads ? "virtual" : "platform", driver.report());
+			// report first so a failing run still shows where the errors came from
+			driver.results().forEach(result -> assertEquals(0, result.errors(), result.name() + " had failed requests"));
+		}
+	}
+
+	private String login(User user) {
+		return json(Map.of("username", user.getUsername(), "password", LoadDataGenerator.PASSWORD));
+	}
+
+	private String newExpense(int index, String category) {
+		return json(Map.of(
+				"shortDescription", "Load expense " + index,
+				"fullDescription", "Expense created by the load test",
+				"amount", 12.5,
+				"date", LocalDateTime.now().toString(),
+				"category", Map.of("name", category)));
+	}
+
+	private String json(Object body) {
+		try {
+			return objectMapper.writeValueAsString(body);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
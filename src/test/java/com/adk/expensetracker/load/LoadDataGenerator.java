@@ -0,0 +1,135 @@
+package com.adk.expensetracker.load;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.Role;
+import com.adk.expensetracker.model.User;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds users, categories and expenses straight into MongoDB with bulk inserts so production sized data sets load in seconds
+ */
+class LoadDataGenerator {
+
+	static final String PASSWORD = "password";
+	private static final int BATCH_SIZE = 5000;
+
+	private final MongoTemplate mongoTemplate;
+	private final PasswordEncoder passwordEncoder;
+	private final SplittableRandom random = new SplittableRandom(42);
+
+	LoadDataGenerator(MongoTemplate mongoTemplate, PasswordEncoder passwordEncoder) {
+		this.mongoTemplate = mongoTemplate;
+		this.passwordEncoder = passwordEncoder;
+	}
+
+	/**
+	 * Seeds the data described by the settings
+	 * @param settings {@link LoadTestSettings} the amount and distribution of the data
+	 * @return {@link List} of {@link User} the seeded users, all sharing {@link #PASSWORD}
+	 */
+	List<User> seed(LoadTestSettings settings) {
+		Role role = mongoTemplate.save(role("USER"));
+		List<Category> categories = new ArrayList<>();
+		for(String name : settings.categories())
+			categories.add(mongoTemplate.save(category(name)));
+
+		// hashing once keeps seeding fast, every user still authenticates through BCrypt on login
+		String password = passwordEncoder.encode(PASSWORD);
+		List<User> users = new ArrayList<>(settings.users());
+		for(int i = 0; i < settings.users(); i++) {
+			User user = new User();
+			user.setId(new ObjectId().toHexString());
+			user.setName("Load User " + i);
+			user.setEmail("load" + i + "@example.com");
+			user.setUsername("load" + i);
+			user.setPassword(password);
+			user.getRoles().add(role);
+			users.add(user);
+		}
+		insert(users, User.class);
+
+		double[] categoryWeights = zipfCumulativeWeights(categories.size(), settings.categorySkew());
+		LocalDateTime firstDate = settings.firstDate();
+		long spanSeconds = ChronoUnit.SECONDS.between(firstDate, LocalDateTime.now());
+		List<Expense> batch = new ArrayList<>(BATCH_SIZE);
+		for(User user : users) {
+			for(int i = 0; i < settings.expensesPerUser(); i++) {
+				batch.add(expense(user, categories.get(pick(categoryWeights)), firstDate.plusSeconds(dateOffset(spanSeconds, settings.recentDateBias())), i));
+				if(batch.size() == BATCH_SIZE) {
+					insert(batch, Expense.class);
+					batch.clear();
+				}
+			}
+		}
+		insert(batch, Expense.class);
+		return users;
+	}
+
+	private <T> void insert(List<T> documents, Class<T> type) {
+		if(documents.isEmpty())
+			return;
+		mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(documents).execute();
+	}
+
+	private Expense expense(User user, Category category, LocalDateTime date, int index) {
+		Expense expense = new Expense();
+		expense.setShortDescription("Expense " + index);
+		expense.setFullDescription("Generated expense " + index + " for " + user.getUsername());
+		expense.setAmount(Math.round(random.nextDouble(1, 500) * 100) / 100.0);
+		expense.setDate(date);
+		expense.setCategory(category);
+		expense.setUserId(user.getId());
+		return expense;
+	}
+
+	/**
+	 * Picks how far into the date span an expense falls, a positive bias skews the offsets towards the end of the span
+	 */
+	private long dateOffset(long spanSeconds, double recentDateBias) {
+		double position = Math.pow(random.nextDouble(), 1 / (1 + recentDateBias));
+		return (long) (position * spanSeconds);
+	}
+
+	private int pick(double[] cumulativeWeights) {
+		double value = random.nextDouble();
+		for(int i = 0; i < cumulativeWeights.length; i++) {
+			if(value < cumulativeWeights[i])
+				return i;
+		}
+		return cumulativeWeights.length - 1;
+	}
+
+	private static double[] zipfCumulativeWeights(int size, double skew) {
+		double[] weights = new double[size];
+		double total = 0;
+		for(int i = 0; i < size; i++) {
+			total += 1 / Math.pow(i + 1, skew);
+			weights[i] = total;
+		}
+		for(int i = 0; i < size; i++)
+			weights[i] /= total;
+		return weights;
+	}
+
+	private static Role role(String value) {
+		Role role = new Role();
+		role.setValue(value);
+		return role;
+	}
+
+	private static Category category(String name) {
+		Category category = new Category();
+		category.setName(name);
+		return category;
+	}
+}
@@ -0,0 +1,168 @@
+package com.adk.expensetracker.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Sends concurrent requests to a running API and records the latency of every request per endpoint
+ */
+class LoadDriver implements AutoCloseable {
+
+	private final String baseUrl;
+	private final LoadTestSettings settings;
+	private final HttpClient httpClient;
+	private final ExecutorService executor;
+	private final List<EndpointResult> results = new ArrayList<>();
+
+	LoadDriver(String baseUrl, LoadTestSettings settings) {
+		this.baseUrl = baseUrl;
+		this.settings = settings;
+		this.executor = Executors.newFixedThreadPool(settings.concurrency());
+		this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+	}
+
+	/**
+	 * Builds a GET request
+	 * @param path {@link String} path of the endpoint
+	 * @param token {@link String} JWT sent as the bearer token
+	 * @return {@link HttpRequest} the request
+	 */
+	HttpRequest get(String path, String token) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", "Bearer " + token).GET().build();
+	}
+
+	/**
+	 * Builds a JSON POST request
+	 * @param path {@link String} path of the endpoint
+	 * @param token {@link String} JWT sent as the bearer token, may be null
+	 * @param body {@link String} JSON request body
+	 * @return {@link HttpRequest} the request
+	 */
+	HttpRequest post(String path, String token, String body) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body));
+		if(token != null)
+			builder.header("Authorization", "Bearer " + token);
+		return builder.build();
+	}
+
+	/**
+	 * Sends a single request
+	 * @param request {@link HttpRequest} the request
+	 * @return {@link String} the response body
+	 * @throws IllegalStateException if the response isn't a 2xx
+	 */
+	String send(HttpRequest request) throws Exception {
+		HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+		if(response.statusCode() / 100 != 2)
+			throw new IllegalStateException(request.method() + " " + request.uri() + " returned " + response.statusCode() + ": " + response.body());
+		return response.body();
+	}
+
+	/**
+	 * Warms up and then measures an endpoint by sending the configured number of requests with the configured concurrency
+	 * @param name {@link String} name the endpoint is reported under
+	 * @param requests {@link IntFunction} creating the request for a given request number
+	 * @return {@link EndpointResult} latencies and throughput of the endpoint
+	 */
+	EndpointResult run(String name, IntFunction<HttpRequest> requests) throws Exception {
+		execute(requests, settings.warmupRequests());
+		long start = System.nanoTime();
+		Outcome outcome = execute(requests, settings.requests());
+		EndpointResult result = new EndpointResult(name, outcome.latencies(), outcome.errors(), System.nanoTime() - start);
+		results.add(result);
+		return result;
+	}
+
+	private Outcome execute(IntFunction<HttpRequest> requests, int count) throws Exception {
+		long[] latencies = new long[count];
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger errors = new AtomicInteger();
+		List<Future<?>> workers = new ArrayList<>();
+		for(int worker = 0; worker < settings.concurrency(); worker++) {
+			workers.add(executor.submit(() -> {
+				for(int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+					HttpRequest request = requests.apply(i);
+					long start = System.nanoTime();
+					try {
+						HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+						if(response.statusCode() / 100 != 2)
+							errors.incrementAndGet();
+					} catch (Exception e) {
+						errors.incrementAndGet();
+					}
+					latencies[i] = System.nanoTime() - start;
+				}
+				return null;
+			}));
+		}
+		for(Future<?> worker : workers)
+			worker.get();
+		return new Outcome(latencies, errors.get());
+	}
+
+	/**
+	 * @return {@link List} of {@link EndpointResult} the results of every measured endpoint in the order they ran
+	 */
+	List<EndpointResult> results() {
+		return results;
+	}
+
+	/**
+	 * @return {@link String} a table of every measured endpoint
+	 */
+	String report() {
+		StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "%n%-28s %9s %7s %10s %10s %10s %12s%n",
+				"endpoint", "requests", "errors", "p50 ms", "p99 ms", "max ms", "req/s"));
+		for(EndpointResult result : results)
+			report.append(result).append(System.lineSeparator());
+		return report.toString();
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	private record Outcome(long[] latencies, int errors) {
+	}
+
+	/**
+	 * Latencies and throughput measured for one endpoint
+	 */
+	record EndpointResult(String name, long[] latencies, int errors, long elapsedNanos) {
+
+		EndpointResult {
+			latencies = latencies.clone();
+			Arrays.sort(latencies);
+		}
+
+		double percentileMillis(double percentile) {
+			int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+			return latencies[Math.max(index, 0)] / 1_000_000.0;
+		}
+
+		double throughput() {
+			return latencies.length / (elapsedNanos / 1_000_000_000.0);
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%-28s %9d %7d %10.2f %10.2f %10.2f %12.1f", name, latencies.length, errors,
+					percentileMillis(50), percentileMillis(99), percentileMillis(100), throughput());
+		}
+	}
+}
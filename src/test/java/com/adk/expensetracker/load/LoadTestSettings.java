@@ -0,0 +1,45 @@
+package com.adk.expensetracker.load;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Size and shape of a load test run, read from system properties so a run can be tuned from the command line
+ * e.g. {@code mvn -Pload-test test -Dload.users=1000 -Dload.expenses-per-user=5000}
+ * @param users number of users seeded
+ * @param expensesPerUser number of expenses seeded for each user
+ * @param days number of days, ending now, the seeded expense dates are spread across
+ * @param recentDateBias how strongly seeded dates cluster towards now, 0 spreads them evenly
+ * @param categories names of the categories seeded expenses are assigned to
+ * @param categorySkew Zipf exponent of the category distribution, 0 assigns categories evenly
+ * @param activeUsers number of seeded users that log in and send requests
+ * @param requests number of requests sent to each endpoint
+ * @param concurrency number of requests in flight at once
+ * @param warmupRequests number of requests sent to each endpoint before measuring
+ */
+record LoadTestSettings(int users, int expensesPerUser, int days, double recentDateBias, List<String> categories,
+		double categorySkew, int activeUsers, int requests, int concurrency, int warmupRequests) {
+
+	static LoadTestSettings fromSystemProperties() {
+		int users = Integer.getInteger("load.users", 100);
+		return new LoadTestSettings(
+				users,
+				Integer.getInteger("load.expenses-per-user", 1000),
+				Integer.getInteger("load.days", 365),
+				Double.parseDouble(System.getProperty("load.recent-date-bias", "0")),
+				Arrays.asList(System.getProperty("load.categories", "Home,Loans,Groceries,Travel,Utilities,Dining,Health,Entertainment").split(",")),
+				Double.parseDouble(System.getProperty("load.category-skew", "1")),
+				Math.min(users, Integer.getInteger("load.active-users", 50)),
+				Integer.getInteger("load.requests", 2000),
+				Integer.getInteger("load.concurrency", 16),
+				Integer.getInteger("load.warmup-requests", 200));
+	}
+
+	/**
+	 * @return {@link LocalDateTime} the earliest date a seeded expense can have
+	 */
+	LocalDateTime firstDate() {
+		return LocalDateTime.now().minusDays(days);
+	}
+}
@@ -0,0 +1,14 @@
+package com.adk.expensetracker.load;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs the same load as {@link ExpenseApiLoadTests} with requests handled on virtual threads so the two reports can be compared.
+ * Only runs on Java 21 or later, e.g. {@code mvn -Pload-test,java21 test -Dload.concurrency=400}
+ */
+@ActiveProfiles("virtual-threads")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadExpenseApiLoadTests extends ExpenseApiLoadTests {
+}
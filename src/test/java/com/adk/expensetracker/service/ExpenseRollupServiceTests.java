@@ -0,0 +1,145 @@
+package com.adk.expensetracker.service;
+
+import com.adk.expensetracker.dto.SpendingSummaryDTO;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.ExpenseRollup;
+import com.adk.expensetracker.repo.ExpenseRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the totals read from rollups against the same totals aggregated from the expenses, for ranges that split into
+ * day and month buckets in every way and after expenses are updated and deleted
+ */
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=7.0.14")
+@Import(ExpenseRollupService.class)
+class ExpenseRollupServiceTests {
+
+	private static final String USER_ID = "6748299eceea026ca6ef5f0c";
+
+	@Autowired
+	private ExpenseRollupService rollupService;
+
+	@Autowired
+	private ExpenseRepo expenseRepo;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	private final List<Expense> expenses = new ArrayList<>();
+
+	@BeforeEach
+	void setup() {
+		mongoTemplate.dropCollection(Expense.class);
+		mongoTemplate.dropCollection(ExpenseRollup.class);
+		expenses.clear();
+		// month boundaries on both sides of a year end, amounts in halves so totals compare exactly
+		LocalDate day = LocalDate.of(2023, 11, 1);
+		int i = 0;
+		while(day.isBefore(LocalDate.of(2024, 4, 1))) {
+			expenses.add(expense(day.atTime(i % 2 == 0 ? 0 : 23, 30), 0.5 * (i % 7 + 1), i % 3 == 0 ? null : i % 3 == 1 ? "Home" : "Food"));
+			day = day.plusDays(i % 4 == 0 ? 1 : 2);
+			i++;
+		}
+		expenses.add(expense(LocalDateTime.of(2023, 12, 31, 23, 59), 12.5, "Home"));
+		expenses.add(expense(LocalDateTime.of(2024, 1, 1, 0, 0), 7.0, "Home"));
+		expenses.add(expense(LocalDateTime.of(2024, 2, 29, 23, 59), 3.5, "Food"));
+		mongoTemplate.insertAll(expenses);
+		rollupService.add(expenses);
+	}
+
+	@Test
+	void midMonthRangeMatchesExpenses() {
+		assertTotalsMatch(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 2, 20));
+	}
+
+	@Test
+	void monthAlignedRangeMatchesExpenses() {
+		assertTotalsMatch(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+	}
+
+	@Test
+	void crossYearRangeMatchesExpenses() {
+		assertTotalsMatch(LocalDate.of(2023, 11, 20), LocalDate.of(2024, 2, 10));
+		assertTotalsMatch(LocalDate.of(2023, 12, 31), LocalDate.of(2024, 1, 1));
+	}
+
+	@Test
+	void rangeWithoutWholeMonthMatchesExpenses() {
+		assertTotalsMatch(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 20));
+		assertTotalsMatch(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 2, 29));
+	}
+
+	@Test
+	void updatedAndDeletedExpensesMatchExpenses() {
+		Expense stored = expenses.get(4);
+		Expense updated = expense(LocalDateTime.of(2024, 3, 15, 12, 0), 99.5, "Travel");
+		updated.setId(stored.getId());
+		mongoTemplate.save(updated);
+		rollupService.remove(List.of(stored));
+		rollupService.add(List.of(updated));
+
+		Expense deleted = expenses.get(10);
+		mongoTemplate.remove(deleted);
+		rollupService.remove(List.of(deleted));
+
+		assertTotalsMatch(LocalDate.of(2023, 11, 1), LocalDate.of(2024, 3, 31));
+	}
+
+	@Test
+	void rollupsWithoutExpensesAreRemoved() {
+		List<Expense> home = expenses.stream().filter(expense -> "Home".equals(expense.getCategoryName())).toList();
+		home.forEach(mongoTemplate::remove);
+		rollupService.remove(home);
+
+		assertEquals(0, mongoTemplate.count(Query.query(Criteria.where("category").is("Home")), ExpenseRollup.class));
+		assertTotalsMatch(LocalDate.of(2023, 11, 1), LocalDate.of(2024, 3, 31));
+	}
+
+	@Test
+	void trendMatchesTotals() {
+		List<SpendingSummaryDTO> months = rollupService.trend(USER_ID, ExpenseRollup.Granularity.MONTH, LocalDate.of(2023, 12, 10), LocalDate.of(2024, 1, 31));
+		List<SpendingSummaryDTO> days = rollupService.trend(USER_ID, ExpenseRollup.Granularity.DAY, LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 31));
+
+		assertEquals(List.of("2023-12-01", "2024-01-01"), months.stream().map(SpendingSummaryDTO::getKey).toList());
+		assertEquals(days.stream().mapToDouble(SpendingSummaryDTO::getTotal).sum(), months.stream().mapToDouble(SpendingSummaryDTO::getTotal).sum());
+	}
+
+	/**
+	 * Compares the key, total and count of every category between the rollups and an aggregation of the expenses
+	 */
+	private void assertTotalsMatch(LocalDate startDate, LocalDate endDate) {
+		List<SpendingSummaryDTO> expected = expenseRepo.summarizeByCategory(USER_ID, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+		List<SpendingSummaryDTO> actual = rollupService.totalsByCategory(USER_ID, startDate, endDate);
+		String range = startDate + " to " + endDate;
+		assertEquals(expected.stream().map(SpendingSummaryDTO::getKey).toList(), actual.stream().map(SpendingSummaryDTO::getKey).toList(), range);
+		for(int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getTotal(), actual.get(i).getTotal(), range + " " + expected.get(i).getKey());
+			assertEquals(expected.get(i).getCount(), actual.get(i).getCount(), range + " " + expected.get(i).getKey());
+		}
+	}
+
+	private static Expense expense(LocalDateTime date, double amount, String categoryName) {
+		Expense expense = new Expense();
+		expense.setShortDescription("Expense");
+		expense.setFullDescription("Expense on " + date);
+		expense.setAmount(amount);
+		expense.setDate(date);
+		expense.setCategoryName(categoryName);
+		expense.setUserId(USER_ID);
+		return expense;
+	}
+}
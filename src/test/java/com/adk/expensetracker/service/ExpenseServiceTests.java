@@ -0,0 +1,104 @@
+package com.adk.expensetracker.service;
+
+import com.adk.expensetracker.dto.BulkImportResultDTO;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.ExpenseRollup;
+import com.adk.expensetracker.model.ExpenseVersion;
+import com.adk.expensetracker.repo.ExpenseRepo;
+import com.adk.expensetracker.util.ExpenseImportReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the writes of {@link ExpenseService} against embedded Mongo
+ */
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=7.0.14")
+@Import({ExpenseService.class, ExpenseRollupService.class, ExpenseVersionService.class, CategoryCache.class})
+class ExpenseServiceTests {
+
+	private static final String USER_ID = "6748299eceea026ca6ef5f0c";
+	private static final String OTHER_USER_ID = "674b3a2f7f637a4fbadaadfa";
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ExpenseRepo expenseRepo;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@MockitoBean
+	private UserService userService;
+
+	@MockitoBean
+	private ResultSizeMetrics resultSizeMetrics;
+
+	private Expense stored;
+
+	@BeforeEach
+	void setup() {
+		mongoTemplate.dropCollection(Expense.class);
+		mongoTemplate.dropCollection(ExpenseRollup.class);
+		mongoTemplate.dropCollection(ExpenseVersion.class);
+		stored = expenseRepo.save(expense(USER_ID, "lunch", 12.5));
+	}
+
+	@Test
+	void updateWithoutUserIdKeepsTheStoredOwner() {
+		Expense updated = expenseService.updateExpense(stored.getId(), expense(null, "dinner", 20.0));
+
+		assertEquals(USER_ID, updated.getUserId());
+		Expense reread = expenseRepo.findById(stored.getId()).orElseThrow();
+		assertEquals(USER_ID, reread.getUserId());
+		assertEquals("dinner", reread.getShortDescription());
+		assertEquals(20.0, reread.getAmount());
+	}
+
+	@Test
+	void updateCannotReassignTheOwner() {
+		expenseService.updateExpense(stored.getId(), expense(OTHER_USER_ID, "dinner", 20.0));
+
+		assertEquals(USER_ID, expenseRepo.findById(stored.getId()).orElseThrow().getUserId());
+	}
+
+	@Test
+	void importReportsANullRowWithoutFailingTheImport() throws Exception {
+		String body = "[{\"shortDescription\":\"dinner\",\"fullDescription\":\"dinner with the team\",\"amount\":20.0,"
+				+ "\"date\":\"2024-11-20T12:00:00\"},null]";
+		BulkImportResultDTO result;
+		try (ExpenseImportReader rows = ExpenseImportReader.open(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+				MediaType.APPLICATION_JSON, Jackson2ObjectMapperBuilder.json().build())) {
+			result = expenseService.createExpenses(USER_ID, rows);
+		}
+
+		assertEquals(2, result.getReceived());
+		assertEquals(1, result.getInserted());
+		assertEquals(1, result.getFailed());
+		assertEquals(2, result.getFailures().get(0).getRow());
+		assertEquals(2, expenseRepo.count());
+	}
+
+	private static Expense expense(String userId, String shortDescription, double amount) {
+		Expense expense = new Expense();
+		expense.setUserId(userId);
+		expense.setShortDescription(shortDescription);
+		expense.setFullDescription(shortDescription + " with the team");
+		expense.setAmount(amount);
+		expense.setDate(LocalDateTime.of(2024, 11, 20, 12, 0));
+		return expense;
+	}
+}
@@ -0,0 +1,138 @@
+package com.adk.expensetracker.service;
+
+import com.adk.expensetracker.dto.ExpenseChangesDTO;
+import com.adk.expensetracker.model.Expense;
+import com.adk.expensetracker.model.ExpenseVersion;
+import com.adk.expensetracker.repo.ExpenseRepo;
+import com.adk.expensetracker.util.DTOMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the delta sync never serves a sync version past a write still running, and where its history ends
+ */
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=7.0.14")
+@Import(ExpenseVersionService.class)
+class ExpenseVersionServiceTests {
+
+	private static final String USER_ID = "6748299eceea026ca6ef5f0c";
+	private static final PageRequest PAGE = PageRequest.of(0, 100);
+
+	@Autowired
+	private ExpenseVersionService versionService;
+
+	@Autowired
+	private ExpenseRepo expenseRepo;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@BeforeEach
+	void setup() {
+		mongoTemplate.dropCollection(Expense.class);
+		mongoTemplate.dropCollection(ExpenseVersion.class);
+	}
+
+	@Test
+	void changesStopBeforeAWriteStillRunning() {
+		ExpenseVersionService.SyncVersions first = versionService.allocateSyncVersions(USER_ID, 1);
+		ExpenseVersionService.SyncVersions second = versionService.allocateSyncVersions(USER_ID, 1);
+		save(second.last(), false);
+		versionService.releaseSyncVersions(second);
+
+		long committed = versionService.syncState(USER_ID).committed();
+		assertEquals(0, committed);
+		assertEquals(List.of(), expenseRepo.findChangesByUserId(USER_ID, 0, committed, PAGE));
+
+		save(first.last(), true);
+		versionService.releaseSyncVersions(first);
+
+		committed = versionService.syncState(USER_ID).committed();
+		List<Expense> changes = expenseRepo.findChangesByUserId(USER_ID, 0, committed, PAGE);
+		assertEquals(List.of(1L, 2L), changes.stream().map(Expense::getSyncVersion).toList());
+		ExpenseChangesDTO changesDTO = DTOMapper.mapToExpenseChangesDTO(changes, 0, committed, PAGE.getPageSize());
+		assertEquals(1, changesDTO.getChanged().size());
+		assertEquals(1, changesDTO.getDeleted().size());
+		assertEquals(2L, changesDTO.getVersion());
+	}
+
+	@Test
+	void caughtUpClientSkipsVersionsThatWereNeverWritten() {
+		ExpenseVersionService.SyncVersions failed = versionService.allocateSyncVersions(USER_ID, 3);
+		versionService.releaseSyncVersions(failed);
+
+		long committed = versionService.syncState(USER_ID).committed();
+		ExpenseChangesDTO changesDTO = DTOMapper.mapToExpenseChangesDTO(expenseRepo.findChangesByUserId(USER_ID, 0, committed, PAGE), 0, committed, PAGE.getPageSize());
+		assertEquals(3L, changesDTO.getVersion());
+	}
+
+	@Test
+	void abandonedAllocationStopsHoldingBackChanges() {
+		ExpenseVersionService impatient = new ExpenseVersionService(mongoTemplate, Duration.ofSeconds(5), 100, Duration.ZERO);
+		impatient.allocateSyncVersions(USER_ID, 3);
+		ExpenseVersionService.SyncVersions next = impatient.allocateSyncVersions(USER_ID, 1);
+		save(next.last(), false);
+		impatient.releaseSyncVersions(next);
+
+		assertEquals(4, impatient.syncState(USER_ID).committed());
+		ExpenseVersion stored = mongoTemplate.findById(USER_ID, ExpenseVersion.class);
+		assertEquals(List.of(), stored.getPending());
+	}
+
+	@Test
+	void horizonIsTheSequenceAtTheFirstMarkWithinRetention() {
+		versionService.allocateSyncVersions(USER_ID, 8);
+		assertEquals(0, versionService.syncState(USER_ID).horizon());
+
+		mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(USER_ID)), new Update().set("marks", List.of(
+				mark(Duration.ofDays(Expense.TOMBSTONE_RETENTION_DAYS + 10), 0), mark(Duration.ofDays(10), 5))), ExpenseVersion.class);
+
+		assertEquals(5, versionService.syncState(USER_ID).horizon());
+	}
+
+	@Test
+	void sequenceIsMarkedAtMostDaily() {
+		versionService.allocateSyncVersions(USER_ID, 2);
+		versionService.allocateSyncVersions(USER_ID, 2);
+
+		ExpenseVersion stored = mongoTemplate.findById(USER_ID, ExpenseVersion.class);
+		assertEquals(1, stored.getMarks().size());
+		assertEquals(0L, stored.getMarks().get(0).getSequence());
+		assertEquals(2, stored.getPending().size());
+	}
+
+	private void save(long syncVersion, boolean deleted) {
+		Expense expense = new Expense();
+		expense.setShortDescription("Expense");
+		expense.setFullDescription("Expense " + syncVersion);
+		expense.setAmount(10.5);
+		expense.setDate(LocalDateTime.of(2024, 9, 10, 22, 56));
+		expense.setUserId(USER_ID);
+		expense.setSyncVersion(syncVersion);
+		expense.setModifiedAt(LocalDateTime.now());
+		expense.setDeleted(deleted);
+		mongoTemplate.save(expense);
+	}
+
+	private static ExpenseVersion.SequenceMark mark(Duration age, long sequence) {
+		ExpenseVersion.SequenceMark mark = new ExpenseVersion.SequenceMark();
+		mark.setAt(Instant.now().minus(age));
+		mark.setSequence(sequence);
+		return mark;
+	}
+}
@@ -0,0 +1,49 @@
+package com.adk.expensetracker.util;
+
+import com.adk.expensetracker.dto.ExpenseDTO;
+import com.adk.expensetracker.model.Category;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the hand written serializer produces exactly the JSON of Jackson's reflective bean serializer
+ */
+class ExpenseDTOSerializerTests {
+
+	// dates as ISO strings like Spring Boot's auto-configured mapper
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+	private final ObjectMapper reflectiveMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.mixIn(ExpenseDTO.class, ReflectiveExpenseDTO.class).build();
+
+	@Test
+	void matchesReflectiveSerialization() throws Exception {
+		Category category = new Category();
+		category.setId("6748299eceea026ca6ef5f0d");
+		category.setName("Loans \"and\" fees");
+		List<ExpenseDTO> expenses = List.of(
+				new ExpenseDTO("6748368e9bf8ee5aaccf393a", "Bank Transfer", "Bank Transfer to account\nending in 1111", 10.5,
+						LocalDateTime.of(2024, 9, 10, 22, 56, 43, 703_000_000), category, "6748299eceea026ca6ef5f0c"),
+				new ExpenseDTO("6748368e9bf8ee5aaccf393b", "Rent", null, 1200.0,
+						LocalDateTime.of(2024, 9, 1, 0, 0), null, "6748299eceea026ca6ef5f0c"),
+				new ExpenseDTO("6748368e9bf8ee5aaccf393c", null, "", null,
+						LocalDateTime.of(987, 1, 2, 3, 4, 5, 6_000), null, null),
+				new ExpenseDTO(null, null, null, 1e-7, null, null, null));
+
+		assertEquals(reflectiveMapper.writeValueAsString(expenses), objectMapper.writeValueAsString(expenses));
+	}
+
+	@JsonSerialize(using = JsonSerializer.None.class)
+	private abstract static class ReflectiveExpenseDTO {
+	}
+}
@@ -0,0 +1,88 @@
+package com.adk.expensetracker.util;
+
+import com.adk.expensetracker.model.Category;
+import com.adk.expensetracker.model.Expense;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks how bulk import bodies are split into rows, including a CSV export read back in
+ */
+class ExpenseImportReaderTests {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	@Test
+	void nullJsonElementIsAnInvalidRow() throws Exception {
+		List<ExpenseImportReader.Row> rows = read("[{\"shortDescription\":\"Rent\",\"fullDescription\":\"Rent for May\","
+				+ "\"amount\":1200.0,\"date\":\"2024-05-01T00:00:00\"},null,{\"shortDescription\":\"Gas\"}]", MediaType.APPLICATION_JSON);
+
+		assertEquals(3, rows.size());
+		assertEquals("Rent", rows.get(0).expense().getShortDescription());
+		assertNull(rows.get(1).expense());
+		assertEquals(2, rows.get(1).number());
+		assertEquals("row is empty", rows.get(1).error());
+		assertEquals("Gas", rows.get(2).expense().getShortDescription());
+	}
+
+	@Test
+	void csvExportReimportsTextUnchanged() throws Exception {
+		List<String> texts = List.of("plain", "=SUM(A1:A9)", "+1", "-lunch", "@home", "\tindented", "'quoted", "'=x", "''", "a,\"b\"");
+		List<Expense> expenses = new ArrayList<>();
+		for (String text : texts) {
+			Expense expense = new Expense();
+			expense.setShortDescription(text);
+			expense.setFullDescription(text);
+			expense.setAmount(-12.5);
+			expense.setDate(LocalDateTime.of(2024, 11, 20, 12, 0));
+			expense.setCategory(new Category());
+			expense.getCategory().setName(text);
+			expenses.add(expense);
+		}
+		ByteArrayOutputStream exported = new ByteArrayOutputStream();
+		ExpenseStreamWriter.writeCsv(expenses.stream(), exported);
+
+		List<ExpenseImportReader.Row> rows = read(exported.toString(StandardCharsets.UTF_8), ExpenseImportReader.TEXT_CSV);
+
+		assertEquals(texts.size(), rows.size());
+		for (int i = 0; i < texts.size(); i++) {
+			Expense expense = rows.get(i).expense();
+			assertEquals(texts.get(i), expense.getShortDescription());
+			assertEquals(texts.get(i), expense.getFullDescription());
+			assertEquals(texts.get(i), expense.getCategory().getName());
+			assertEquals(-12.5, expense.getAmount());
+		}
+	}
+
+	@Test
+	void csvExportEscapesFormulaText() throws Exception {
+		Expense expense = new Expense();
+		expense.setShortDescription("=HYPERLINK(\"http://example.com\")");
+		expense.setAmount(-12.5);
+		ByteArrayOutputStream exported = new ByteArrayOutputStream();
+		ExpenseStreamWriter.writeCsv(List.of(expense).stream(), exported);
+
+		String row = exported.toString(StandardCharsets.UTF_8).split("\n")[1];
+		assertEquals(",\"'=HYPERLINK(\"\"http://example.com\"\")\",,-12.5,,,", row);
+	}
+
+	private List<ExpenseImportReader.Row> read(String body, MediaType contentType) throws Exception {
+		List<ExpenseImportReader.Row> rows = new ArrayList<>();
+		try (ExpenseImportReader reader = ExpenseImportReader.open(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType, objectMapper)) {
+			reader.forEachRemaining(rows::add);
+		}
+		return rows;
+	}
+}